@@ -1,9 +1,14 @@
 package com.login.ohc;
 
+import com.login.ohc.auth.AuthWorkerPool;
+import com.login.ohc.auth.LoginAdmission;
+import com.login.ohc.commands.BanCommands;
 import com.login.ohc.commands.ConfigCommands;
 import com.login.ohc.commands.LoginCommands;
+import com.login.ohc.commands.StorageCommands;
 import com.login.ohc.data.PlayerDataManager;
 import com.login.ohc.events.ServerEventHandler;
+import com.login.ohc.events.TickScheduler;
 import com.login.ohc.network.LoginPacketHandler;
 import com.login.ohc.restrictions.PlayerRestrictionManager;
 import net.fabricmc.api.ModInitializer;
@@ -44,11 +49,20 @@ public class Ohc_Login implements ModInitializer {
         
         // 注册配置管理命令
         ConfigCommands.registerCommands();
+        
+        // 注册存储管理命令
+        StorageCommands.registerCommands();
+        
+        // 注册封停管理命令
+        BanCommands.registerCommands();
 		
 		// 注册服务器生命周期事件
 		ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
-			// 服务器关闭时保存所有数据
-			PlayerDataManager.getInstance().saveAllData();
+			// 服务器关闭时写入剩余变更并压缩到快照
+			AuthWorkerPool.getInstance().shutdown();
+			LoginAdmission.getInstance().clear();
+			TickScheduler.getInstance().clear();
+			PlayerDataManager.getInstance().shutdown();
 			LOGGER.info("Ohc_Login mod data saved on server shutdown");
 		});
 
@@ -0,0 +1,163 @@
+package com.login.ohc.auth;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerSessionManager;
+import net.minecraft.class_3222;
+import net.minecraft.server.MinecraftServer;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 密码验证线程池
+ * 密码哈希和验证在固定大小的线程池中执行，结果交回服务器线程处理，避免阻塞游戏刻；
+ * 同一玩家同时只能有一个验证任务，等待队列满时直接拒绝新任务
+ */
+public class AuthWorkerPool {
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * 提交结果
+     */
+    public enum SubmitResult {
+        ACCEPTED,
+        IN_FLIGHT,
+        BUSY
+    }
+
+    private AuthWorkerPool() {
+    }
+
+    public static AuthWorkerPool getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final AuthWorkerPool INSTANCE = new AuthWorkerPool();
+    }
+
+    /**
+     * 启动线程池
+     * @param threads 工作线程数
+     * @param queueLimit 等待队列长度
+     */
+    public synchronized void start(int threads, int queueLimit) {
+        if (executor != null) {
+            return;
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), runnable -> {
+                    Thread thread = new Thread(runnable, "OHC-Login-Auth-" + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        Ohc_Login.LOGGER.info("Started auth worker pool with {} threads (queue limit {})", threads, queueLimit);
+    }
+
+    /**
+     * 停止线程池，已提交的任务会执行完
+     */
+    public synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        inFlight.clear();
+    }
+
+    /**
+     * 为在线玩家提交验证任务，回调收到的是完成时玩家当前的实体（计算期间重生会替换实体），
+     * 玩家在任务完成前离线时不会调用回调
+     * @param work 在工作线程中执行的计算
+     * @param onServerThread 在服务器线程中处理结果
+     * @param onError 计算抛出异常时在服务器线程中通知玩家
+     */
+    public <T> SubmitResult submit(class_3222 player, Supplier<T> work, BiConsumer<class_3222, T> onServerThread,
+                                   Consumer<class_3222> onError) {
+        MinecraftServer server = player.method_5682();
+        UUID playerUuid = player.method_5667();
+        return submit(player.method_7334().getName(), server, work, result -> {
+            class_3222 current = PlayerSessionManager.getOnlinePlayer(server, playerUuid);
+            if (current != null && !current.method_14239()) {
+                onServerThread.accept(current, result);
+            }
+        }, () -> {
+            class_3222 current = PlayerSessionManager.getOnlinePlayer(server, playerUuid);
+            if (current != null && !current.method_14239()) {
+                onError.accept(current);
+            }
+        });
+    }
+
+    /**
+     * 提交验证任务
+     * @param key 去重键（玩家名），同一键同时只能有一个任务
+     * @param work 在工作线程中执行的计算
+     * @param onServerThread 在服务器线程中处理结果
+     * @param onError 计算抛出异常时在服务器线程中调用
+     */
+    public <T> SubmitResult submit(String key, MinecraftServer server, Supplier<T> work, Consumer<T> onServerThread, Runnable onError) {
+        ThreadPoolExecutor executor = this.executor;
+        if (executor == null) {
+            return SubmitResult.BUSY;
+        }
+        if (!inFlight.add(key)) {
+            return SubmitResult.IN_FLIGHT;
+        }
+
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = work.get();
+                } catch (RuntimeException e) {
+                    Ohc_Login.LOGGER.error("Auth task for {} failed", key, e);
+                    _finishOnServerThread(server, key, onError);
+                    return;
+                }
+
+                // 结果处理完之前仍视为进行中，避免同一玩家在此期间提交新的任务
+                _finishOnServerThread(server, key, () -> onServerThread.accept(result));
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            return SubmitResult.BUSY;
+        }
+        return SubmitResult.ACCEPTED;
+    }
+
+    private void _finishOnServerThread(MinecraftServer server, String key, Runnable action) {
+        server.execute(() -> {
+            try {
+                action.run();
+            } finally {
+                inFlight.remove(key);
+            }
+        });
+    }
+
+    /**
+     * 获取等待中的任务数
+     */
+    public int getQueuedCount() {
+        ThreadPoolExecutor executor = this.executor;
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.login.ohc.auth;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 基于 MessageDigest 的 HMAC-SHA256
+ * javax.crypto.Mac 的 doFinal 每次都会分配结果数组，PBKDF2 的每次迭代都要调用一次；
+ * 这里直接把结果写入调用方的数组，整个迭代过程不分配内存。实例不是线程安全的，按线程复用
+ */
+final class HmacSha256 {
+    static final int LENGTH = 32;
+
+    private static final int BLOCK_SIZE = 64;
+    private static final ThreadLocal<HmacSha256> INSTANCE = ThreadLocal.withInitial(HmacSha256::new);
+
+    private final MessageDigest inner = _sha256();
+    private final MessageDigest outer = _sha256();
+    private final byte[] innerPad = new byte[BLOCK_SIZE];
+    private final byte[] outerPad = new byte[BLOCK_SIZE];
+
+    private HmacSha256() {
+    }
+
+    /**
+     * 获取当前线程的实例并以 key 初始化
+     */
+    static HmacSha256 get(byte[] key) {
+        HmacSha256 hmac = INSTANCE.get();
+        hmac.init(key);
+        return hmac;
+    }
+
+    void init(byte[] key) {
+        if (key.length > BLOCK_SIZE) {
+            key = inner.digest(key);
+        }
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            byte k = i < key.length ? key[i] : 0;
+            innerPad[i] = (byte) (k ^ 0x36);
+            outerPad[i] = (byte) (k ^ 0x5C);
+        }
+        inner.reset();
+        inner.update(innerPad);
+    }
+
+    void update(byte[] input, int offset, int length) {
+        inner.update(input, offset, length);
+    }
+
+    /**
+     * 写入大端序的 32 位整数
+     */
+    void updateInt(int value) {
+        inner.update((byte) (value >>> 24));
+        inner.update((byte) (value >>> 16));
+        inner.update((byte) (value >>> 8));
+        inner.update((byte) value);
+    }
+
+    /**
+     * 计算结果写入 out[offset, offset + 32)，之后可以用同一密钥继续计算
+     */
+    void doFinal(byte[] out, int offset) {
+        try {
+            inner.digest(out, offset, LENGTH);
+            outer.update(outerPad);
+            outer.update(out, offset, LENGTH);
+            outer.digest(out, offset, LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        inner.update(innerPad);
+    }
+
+    private static MessageDigest _sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+}
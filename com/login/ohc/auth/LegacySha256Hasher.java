@@ -0,0 +1,73 @@
+package com.login.ohc.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * 旧版单次 SHA-256 哈希
+ * 只用于验证升级前保存的凭据，验证成功后凭据会被重新哈希为当前算法；
+ * 旧版以 Base64 盐值字符串本身参与哈希，这里保持相同的计算方式
+ */
+public class LegacySha256Hasher implements PasswordHasher {
+    public static final String NAME = "sha256";
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    });
+    // 盐值的 Base64 编码（16 字节盐值为 24 字节）
+    private static final ThreadLocal<byte[]> ENCODED_SALT = ThreadLocal.withInitial(() -> new byte[24]);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void hash(String password, byte[] salt, PasswordHashSpec spec, byte[] out) {
+        if (out.length != DIGEST_LENGTH) {
+            throw new IllegalArgumentException("SHA-256 hash must be " + DIGEST_LENGTH + " bytes");
+        }
+
+        int encodedLength = 4 * ((salt.length + 2) / 3);
+        byte[] encodedSalt = ENCODED_SALT.get();
+        if (encodedSalt.length < encodedLength) {
+            encodedSalt = new byte[encodedLength];
+            ENCODED_SALT.set(encodedSalt);
+        }
+        Base64.getEncoder().encode(salt, encodedSalt);
+
+        MessageDigest md = DIGEST.get();
+        md.reset();
+        md.update(encodedSalt, 0, encodedLength);
+        md.update(password.getBytes(StandardCharsets.UTF_8));
+        try {
+            md.digest(out, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public long cost(PasswordHashSpec spec) {
+        return 0;
+    }
+
+    @Override
+    public PasswordHashSpec calibrate(long targetMillis) {
+        return PasswordHashSpec.of(NAME);
+    }
+
+    @Override
+    public boolean canCreate() {
+        return false;
+    }
+}
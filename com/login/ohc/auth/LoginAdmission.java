@@ -0,0 +1,158 @@
+package com.login.ohc.auth;
+
+import com.login.ohc.data.PlayerSessionManager;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import net.minecraft.class_3222;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * 全服登录尝试准入控制
+ * 需要计算哈希的请求（登录和设置密码）先进入等待队列，每个游戏刻按令牌桶放行：
+ * 令牌按固定速率补充，每刻放行数量另有上限；每个玩家在队列中最多只有一个请求，
+ * 按入队顺序放行即在玩家之间轮转。队列已满或玩家已有请求时直接拒绝，不做任何哈希计算。
+ * 请求只记录玩家 UUID，放行时再取当前的玩家实体（排队期间重生或切换维度会替换实体）
+ * 只在服务器线程中调用
+ */
+public class LoginAdmission {
+    private static final long QUEUE_TIMEOUT_MILLIS = 10_000;
+
+    // 玩家名 -> 等待中的请求，按入队顺序排列
+    private final LinkedHashMap<String, Attempt> queue = new LinkedHashMap<>();
+    private int ratePerSecond = 20;
+    private int burst = 40;
+    private int perTickBudget = 4;
+    private int queueLimit = 100;
+
+    private double tokens = burst;
+    private long lastRefillNanos = System.nanoTime();
+
+    private long admitted;
+    private long rejected;
+    private long expired;
+
+    private record Attempt(String playerName, UUID playerUuid, MinecraftServer server, Consumer<class_3222> action,
+                           Consumer<class_3222> onExpired, long enqueuedAt) {
+    }
+
+    private LoginAdmission() {
+    }
+
+    public static LoginAdmission getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final LoginAdmission INSTANCE = new LoginAdmission();
+    }
+
+    /**
+     * 应用配置
+     * @param ratePerSecond 每秒补充的令牌数（长期平均放行速率）
+     * @param burst 令牌桶容量（允许的突发数量）
+     * @param perTickBudget 每个游戏刻最多放行的请求数
+     * @param queueLimit 等待队列长度
+     */
+    public void configure(int ratePerSecond, int burst, int perTickBudget, int queueLimit) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.perTickBudget = perTickBudget;
+        this.queueLimit = queueLimit;
+        this.tokens = Math.min(tokens, burst);
+    }
+
+    /**
+     * 提交需要哈希计算的请求，放行时在服务器线程中以玩家当前的实体执行 action
+     * @param onExpired 请求在队列中等待超时时调用
+     * @return ACCEPTED 表示已入队，IN_FLIGHT 表示玩家已有等待中的请求，BUSY 表示队列已满
+     */
+    public AuthWorkerPool.SubmitResult offer(class_3222 player, Consumer<class_3222> action, Consumer<class_3222> onExpired) {
+        String playerName = player.method_7334().getName();
+        if (queue.containsKey(playerName)) {
+            rejected++;
+            return AuthWorkerPool.SubmitResult.IN_FLIGHT;
+        }
+        if (queue.size() >= queueLimit) {
+            rejected++;
+            return AuthWorkerPool.SubmitResult.BUSY;
+        }
+        queue.put(playerName, new Attempt(playerName, player.method_5667(), player.method_5682(), action, onExpired,
+                System.currentTimeMillis()));
+        return AuthWorkerPool.SubmitResult.ACCEPTED;
+    }
+
+    /**
+     * 每个游戏刻结束时调用：补充令牌，按预算放行队列头部的请求，丢弃等待超时的请求
+     */
+    public void tick() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * ratePerSecond / 1_000_000_000.0);
+        lastRefillNanos = now;
+        if (queue.isEmpty()) {
+            return;
+        }
+
+        int budget = perTickBudget;
+        long expireBefore = System.currentTimeMillis() - QUEUE_TIMEOUT_MILLIS;
+        while (!queue.isEmpty()) {
+            // 每次重新取队首，回调中修改队列不影响遍历
+            Attempt attempt = queue.values().iterator().next();
+            class_3222 player = PlayerSessionManager.getOnlinePlayer(attempt.server(), attempt.playerUuid());
+            if (player == null || player.method_14239()) {
+                queue.remove(attempt.playerName());
+                continue;
+            }
+            if (attempt.enqueuedAt() < expireBefore) {
+                queue.remove(attempt.playerName());
+                expired++;
+                attempt.onExpired().accept(player);
+                continue;
+            }
+            if (budget <= 0 || tokens < 1) {
+                // 后面的请求入队更晚，不会先于当前请求超时
+                break;
+            }
+            queue.remove(attempt.playerName());
+            budget--;
+            tokens--;
+            admitted++;
+            attempt.action().accept(player);
+        }
+    }
+
+    /**
+     * 玩家离开时移除其等待中的请求
+     */
+    public void remove(String playerName) {
+        queue.remove(playerName);
+    }
+
+    /**
+     * 丢弃等待中的请求并重置令牌桶和统计（服务器关闭时调用，同一进程中再次启动的服务器从初始状态开始）
+     */
+    public void clear() {
+        queue.clear();
+        tokens = burst;
+        lastRefillNanos = System.nanoTime();
+        admitted = 0;
+        rejected = 0;
+        expired = 0;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getAdmittedCount() {
+        return admitted;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    public long getExpiredCount() {
+        return expired;
+    }
+}
@@ -0,0 +1,77 @@
+package com.login.ohc.auth;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.config.MessageConfig;
+import com.login.ohc.data.PlayerSessionManager;
+import com.login.ohc.events.TickScheduler;
+import java.util.UUID;
+import net.minecraft.class_2561;
+import net.minecraft.class_3222;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * 登录超时
+ * 玩家加入后在 {@link TickScheduler} 中登记截止时间，到期仍未登录则断开连接，不需要每刻遍历在线玩家；
+ * 启用倒计时时每秒调度一次并在动作栏显示剩余时间。玩家离开时任务随之取消。
+ * 任务只记录玩家 UUID，每次检查时取当前的玩家实体（重生和切换维度会替换实体）
+ * 只在服务器线程中调用
+ */
+public class LoginTimeout {
+    private long timedOutCount;
+
+    private LoginTimeout() {
+    }
+
+    public static LoginTimeout getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final LoginTimeout INSTANCE = new LoginTimeout();
+    }
+
+    /**
+     * 玩家加入时开始计时（超时时间为 0 时不限制）
+     */
+    public void start(class_3222 player) {
+        MessageConfig config = MessageConfig.getInstance();
+        int timeoutSeconds = config.getLoginTimeoutSeconds();
+        if (timeoutSeconds <= 0) {
+            return;
+        }
+        _schedule(player.method_5682(), player.method_5667(), timeoutSeconds, config.isLoginTimeoutCountdownEnabled());
+    }
+
+    /**
+     * 因登录超时被断开的连接数
+     */
+    public long getTimedOutCount() {
+        return timedOutCount;
+    }
+
+    private void _schedule(MinecraftServer server, UUID playerUuid, int remainingSeconds, boolean countdown) {
+        int delaySeconds = countdown ? 1 : remainingSeconds;
+        TickScheduler.getInstance().scheduleSeconds(playerUuid, delaySeconds,
+                () -> _check(server, playerUuid, remainingSeconds - delaySeconds, countdown));
+    }
+
+    private void _check(MinecraftServer server, UUID playerUuid, int remainingSeconds, boolean countdown) {
+        class_3222 player = PlayerSessionManager.getOnlinePlayer(server, playerUuid);
+        if (player == null || player.method_14239() || PlayerSessionManager.getInstance().isLoggedIn(player)) {
+            return;
+        }
+
+        MessageConfig config = MessageConfig.getInstance();
+        if (remainingSeconds <= 0) {
+            timedOutCount++;
+            player.field_13987.method_52396(class_2561.method_43470(config.getErrorMessage("login_timeout")));
+            Ohc_Login.LOGGER.info("Player {} disconnected after login timeout", player.method_7334().getName());
+            return;
+        }
+
+        String message = config.getActionbarMessage("login_timeout_countdown")
+                .replace("{time}", String.valueOf(remainingSeconds));
+        player.method_7353(class_2561.method_43470(message), true);
+        _schedule(server, playerUuid, remainingSeconds, countdown);
+    }
+}
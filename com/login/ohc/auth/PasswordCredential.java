@@ -0,0 +1,73 @@
+package com.login.ohc.auth;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 密码凭据（算法、盐值和哈希）
+ * 不可变对象，可以从玩家记录中取出后交给验证线程使用，计算过程不需要持有记录锁；
+ * 盐值和哈希数组与玩家记录共享，不能修改
+ * @param algorithm 算法及参数，见 {@link PasswordHashSpec}；旧版记录为 null
+ */
+public record PasswordCredential(String algorithm, byte[] salt, byte[] hash) {
+
+    /**
+     * 验证结果
+     * @param upgraded 密码正确且凭据需要升级时为按当前算法重新生成的凭据，否则为 null
+     */
+    public record Verification(boolean matched, PasswordCredential upgraded) {
+    }
+
+    /**
+     * 使用当前算法为新密码生成凭据（随机盐值）
+     */
+    public static PasswordCredential create(String password) {
+        return PasswordHashing.getInstance().create(password);
+    }
+
+    /**
+     * 验证密码是否与凭据匹配
+     */
+    public boolean matches(String password) {
+        return PasswordHashing.getInstance().matches(this, password);
+    }
+
+    /**
+     * 验证密码，密码正确时检查凭据是否需要按当前算法重新哈希
+     */
+    public Verification verify(String password) {
+        PasswordHashing hashing = PasswordHashing.getInstance();
+        if (!hashing.matches(this, password)) {
+            return new Verification(false, null);
+        }
+        return new Verification(true, hashing.needsRehash(this) ? hashing.create(password) : null);
+    }
+
+    /**
+     * 解析算法字段
+     */
+    public PasswordHashSpec getSpec() {
+        return PasswordHashing.getInstance().parseSpec(algorithm);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof PasswordCredential other
+                && Objects.equals(algorithm, other.algorithm)
+                && Arrays.equals(salt, other.salt)
+                && Arrays.equals(hash, other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Objects.hashCode(algorithm) + Arrays.hashCode(salt)) + Arrays.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return "PasswordCredential[algorithm=" + algorithm + "]";
+    }
+}
@@ -0,0 +1,79 @@
+package com.login.ohc.auth;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 哈希算法及其参数
+ * 保存格式为 "算法$参数=值,参数=值"，例如 "scrypt$N=16384,r=8,p=1"；
+ * 旧版记录没有算法字段，视为 {@link LegacySha256Hasher#NAME}
+ */
+public record PasswordHashSpec(String algorithm, Map<String, Integer> params) {
+
+    public PasswordHashSpec {
+        params = Map.copyOf(params);
+    }
+
+    public static PasswordHashSpec of(String algorithm) {
+        return new PasswordHashSpec(algorithm, Map.of());
+    }
+
+    /**
+     * 解析保存的算法字段，null 或空字符串表示旧版 SHA-256
+     */
+    public static PasswordHashSpec parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return of(LegacySha256Hasher.NAME);
+        }
+
+        int separator = value.indexOf('$');
+        if (separator < 0) {
+            return of(value);
+        }
+
+        Map<String, Integer> params = new LinkedHashMap<>();
+        for (String param : value.substring(separator + 1).split(",")) {
+            int equals = param.indexOf('=');
+            if (equals > 0) {
+                params.put(param.substring(0, equals), Integer.parseInt(param.substring(equals + 1)));
+            }
+        }
+        return new PasswordHashSpec(value.substring(0, separator), params);
+    }
+
+    /**
+     * 获取整数参数
+     */
+    public int getInt(String name, int defaultValue) {
+        return params.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * 返回一份修改了某个参数的副本
+     */
+    public PasswordHashSpec with(String name, int value) {
+        Map<String, Integer> copy = new LinkedHashMap<>(params);
+        copy.put(name, value);
+        return new PasswordHashSpec(algorithm, copy);
+    }
+
+    /**
+     * 转换为保存格式（参数按名称排序，相同参数的格式总是相同）
+     */
+    public String format() {
+        if (params.isEmpty()) {
+            return algorithm;
+        }
+        StringJoiner joiner = new StringJoiner(",", algorithm + "$", "");
+        params.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> joiner.add(entry.getKey() + "=" + entry.getValue()));
+        return joiner.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,62 @@
+package com.login.ohc.auth;
+
+/**
+ * 密码哈希算法
+ * 实现类通过 {@link PasswordHashing#register} 注册，算法名和参数随凭据一起保存，
+ * 修改默认算法后旧凭据仍按原算法验证，并在玩家下次登录时重新哈希
+ * 实现类会在多个验证线程中同时调用，可复用的计算缓冲应放在线程本地变量中
+ */
+public interface PasswordHasher {
+
+    /**
+     * 算法名（保存在凭据中，注册后不能再修改）
+     */
+    String getName();
+
+    /**
+     * 计算密码哈希，结果写入 out（长度即哈希长度）
+     * @param salt 随机盐值
+     * @param spec 算法参数
+     */
+    void hash(String password, byte[] salt, PasswordHashSpec spec, byte[] out);
+
+    /**
+     * 计算强度（用于判断旧凭据是否弱于当前参数）
+     */
+    long cost(PasswordHashSpec spec);
+
+    /**
+     * 选择单次哈希耗时不超过目标时间的参数
+     * @param targetMillis 单次哈希的目标耗时（毫秒）
+     */
+    PasswordHashSpec calibrate(long targetMillis);
+
+    /**
+     * 是否可以用于生成新凭据（只用于验证旧凭据的算法返回 false）
+     */
+    default boolean canCreate() {
+        return true;
+    }
+
+    /**
+     * 释放当前线程缓存的计算缓冲（在验证线程以外的线程中哈希后调用）
+     */
+    default void releaseThreadResources() {
+    }
+
+    /**
+     * 测量单次哈希的耗时（纳秒），预热一次后取三次中的最小值
+     */
+    default long benchmark(PasswordHashSpec spec) {
+        byte[] salt = new byte[PasswordHashing.SALT_LENGTH];
+        byte[] out = new byte[PasswordHashing.HASH_LENGTH];
+        hash("calibration", salt, spec, out);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            hash("calibration", salt, spec, out);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
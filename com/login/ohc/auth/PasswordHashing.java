@@ -0,0 +1,142 @@
+package com.login.ohc.auth;
+
+import com.login.ohc.Ohc_Login;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 密码哈希算法注册表
+ * 新密码使用当前算法和启动时校准的参数，已保存的凭据按其记录的算法验证；
+ * 凭据的算法不同或强度低于当前参数时，验证成功后会被重新哈希
+ * 验证时复用线程本地的哈希缓冲和已解析的算法参数，并以常量时间比较哈希
+ */
+public class PasswordHashing {
+    public static final int SALT_LENGTH = 16;
+    public static final int HASH_LENGTH = 32;
+
+    private static final ThreadLocal<byte[]> VERIFY_BUFFER = ThreadLocal.withInitial(() -> new byte[HASH_LENGTH]);
+
+    private final Map<String, PasswordHasher> hashers = new ConcurrentHashMap<>();
+    // 算法字段 -> 解析结果（不同参数组合的数量很少）
+    private final Map<String, PasswordHashSpec> parsedSpecs = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private volatile PasswordHashSpec currentSpec;
+
+    private PasswordHashing() {
+        register(new LegacySha256Hasher());
+        register(new Pbkdf2Hasher());
+        register(new ScryptHasher());
+        // 校准前使用最低参数
+        currentSpec = ScryptHasher.minimumSpec();
+    }
+
+    public static PasswordHashing getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final PasswordHashing INSTANCE = new PasswordHashing();
+    }
+
+    /**
+     * 注册哈希算法（同名算法会被替换）
+     */
+    public void register(PasswordHasher hasher) {
+        hashers.put(hasher.getName(), hasher);
+    }
+
+    /**
+     * 选择新密码使用的算法，并按单次哈希的目标耗时校准参数
+     * @param algorithm 算法名，未注册或只能用于验证时使用 scrypt
+     * @param targetMillis 单次哈希的目标耗时（毫秒）
+     */
+    public void calibrate(String algorithm, long targetMillis) {
+        PasswordHasher hasher = hashers.get(algorithm);
+        if (hasher == null || !hasher.canCreate()) {
+            Ohc_Login.LOGGER.warn("Unknown password hash algorithm '{}', using {}", algorithm, ScryptHasher.NAME);
+            hasher = hashers.get(ScryptHasher.NAME);
+        }
+
+        long start = System.nanoTime();
+        PasswordHashSpec spec = hasher.calibrate(targetMillis);
+        long hashMillis = hasher.benchmark(spec) / 1_000_000L;
+        // 校准在服务器线程中执行，不保留计算缓冲
+        hasher.releaseThreadResources();
+        currentSpec = spec;
+
+        Ohc_Login.LOGGER.info("Calibrated password hashing to {} ({} ms per hash, target {} ms, calibration took {} ms)",
+                spec.format(), hashMillis, targetMillis, (System.nanoTime() - start) / 1_000_000L);
+        if (hashMillis > targetMillis * 2) {
+            Ohc_Login.LOGGER.warn("Minimum {} parameters exceed the password hash time budget on this host", hasher.getName());
+        }
+    }
+
+    public PasswordHashSpec getCurrentSpec() {
+        return currentSpec;
+    }
+
+    /**
+     * 解析凭据的算法字段（结果会被缓存）
+     */
+    public PasswordHashSpec parseSpec(String algorithm) {
+        if (algorithm == null) {
+            return PasswordHashSpec.of(LegacySha256Hasher.NAME);
+        }
+        return parsedSpecs.computeIfAbsent(algorithm, PasswordHashSpec::parse);
+    }
+
+    /**
+     * 使用当前算法为新密码生成凭据
+     */
+    public PasswordCredential create(String password) {
+        PasswordHashSpec spec = currentSpec;
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        byte[] hash = new byte[HASH_LENGTH];
+        _hasher(spec).hash(password, salt, spec, hash);
+        return new PasswordCredential(spec.format(), salt, hash);
+    }
+
+    /**
+     * 按凭据记录的算法验证密码
+     */
+    public boolean matches(PasswordCredential credential, String password) {
+        PasswordHashSpec spec = credential.getSpec();
+        PasswordHasher hasher = hashers.get(spec.algorithm());
+        if (hasher == null) {
+            Ohc_Login.LOGGER.error("No password hasher registered for algorithm {}", spec.algorithm());
+            return false;
+        }
+
+        byte[] expected = credential.hash();
+        byte[] actual = VERIFY_BUFFER.get();
+        if (actual.length != expected.length) {
+            actual = new byte[expected.length];
+            VERIFY_BUFFER.set(actual);
+        }
+        hasher.hash(password, credential.salt(), spec, actual);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * 凭据是否需要按当前算法重新哈希
+     */
+    public boolean needsRehash(PasswordCredential credential) {
+        PasswordHashSpec spec = credential.getSpec();
+        PasswordHashSpec current = currentSpec;
+        if (!spec.algorithm().equals(current.algorithm())) {
+            return true;
+        }
+        return _hasher(current).cost(spec) < _hasher(current).cost(current);
+    }
+
+    private PasswordHasher _hasher(PasswordHashSpec spec) {
+        PasswordHasher hasher = hashers.get(spec.algorithm());
+        if (hasher == null) {
+            throw new IllegalStateException("No password hasher registered for algorithm " + spec.algorithm());
+        }
+        return hasher;
+    }
+}
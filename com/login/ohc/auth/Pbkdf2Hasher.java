@@ -0,0 +1,68 @@
+package com.login.ohc.auth;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PBKDF2-HMAC-SHA256
+ * 参数 i 为迭代次数；使用线程本地的 {@link HmacSha256} 计算，迭代过程不分配内存，
+ * 结果与 JDK 的 PBKDF2WithHmacSHA256 相同（密码按 UTF-8 编码）
+ */
+public class Pbkdf2Hasher implements PasswordHasher {
+    public static final String NAME = "pbkdf2-sha256";
+
+    private static final int MIN_ITERATIONS = 100_000;
+    private static final int MAX_ITERATIONS = 10_000_000;
+    private static final int BENCHMARK_ITERATIONS = 20_000;
+    private static final int BLOCK_LENGTH = HmacSha256.LENGTH;
+
+    // [0, 32) 为当前迭代的 U，[32, 64) 为累积的块结果
+    private static final ThreadLocal<byte[]> BLOCK = ThreadLocal.withInitial(() -> new byte[BLOCK_LENGTH * 2]);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void hash(String password, byte[] salt, PasswordHashSpec spec, byte[] out) {
+        HmacSha256 hmac = HmacSha256.get(password.getBytes(StandardCharsets.UTF_8));
+        derive(hmac, salt, salt.length, spec.getInt("i", MIN_ITERATIONS), out, 0, out.length);
+    }
+
+    @Override
+    public long cost(PasswordHashSpec spec) {
+        return spec.getInt("i", MIN_ITERATIONS);
+    }
+
+    /**
+     * 耗时与迭代次数成正比，按基准测试结果换算（取整到千次）
+     */
+    @Override
+    public PasswordHashSpec calibrate(long targetMillis) {
+        PasswordHashSpec base = PasswordHashSpec.of(NAME).with("i", BENCHMARK_ITERATIONS);
+        double nanosPerIteration = (double) benchmark(base) / BENCHMARK_ITERATIONS;
+        long iterations = (long) (targetMillis * 1_000_000L / nanosPerIteration) / 1000 * 1000;
+        return base.with("i", (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations)));
+    }
+
+    /**
+     * PBKDF2 派生密钥，盐值为 salt[0, saltLength)，结果写入 out[offset, offset + length)
+     */
+    static void derive(HmacSha256 hmac, byte[] salt, int saltLength, int iterations, byte[] out, int offset, int length) {
+        byte[] block = BLOCK.get();
+        for (int i = 1, done = 0; done < length; i++, done += BLOCK_LENGTH) {
+            hmac.update(salt, 0, saltLength);
+            hmac.updateInt(i);
+            hmac.doFinal(block, 0);
+            System.arraycopy(block, 0, block, BLOCK_LENGTH, BLOCK_LENGTH);
+            for (int c = 1; c < iterations; c++) {
+                hmac.update(block, 0, BLOCK_LENGTH);
+                hmac.doFinal(block, 0);
+                for (int k = 0; k < BLOCK_LENGTH; k++) {
+                    block[BLOCK_LENGTH + k] ^= block[k];
+                }
+            }
+            System.arraycopy(block, BLOCK_LENGTH, out, offset + done, Math.min(BLOCK_LENGTH, length - done));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.login.ohc.auth;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * scrypt（RFC 7914）纯 Java 实现
+ * 参数 N 为 CPU/内存代价（2 的幂），r 为块大小，p 为并行度；
+ * 单次哈希占用 128 * r * N 字节内存，N 的上限限制了每个验证线程的内存占用；
+ * 计算缓冲按线程缓存复用，避免每次验证都分配数十 MB 的大数组；
+ * V 的大小始终与最近一次哈希的 N 一致，验证过一次大 N 的旧凭据后不会一直保留大数组
+ */
+public class ScryptHasher implements PasswordHasher {
+    public static final String NAME = "scrypt";
+
+    private static final int DEFAULT_R = 8;
+    private static final int MIN_N = 1 << 14;
+    // r = 8 时为 32MB
+    private static final int MAX_N = 1 << 15;
+    private static final int MAX_P = 8;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * 线程本地的计算缓冲，块缓冲在参数变大时重新分配，V 在 N 或 r 变化时按实际大小重新分配
+     */
+    private static class Scratch {
+        final int[] t = new int[16];
+        byte[] b = new byte[0];
+        int[] x = new int[0];
+        int[] y = new int[0];
+        int[] v = new int[0];
+
+        void ensure(int n, int r, int p) {
+            int blockInts = 32 * r;
+            if (b.length < p * 128 * r) {
+                b = new byte[p * 128 * r];
+            }
+            if (x.length != blockInts) {
+                x = new int[blockInts];
+                y = new int[blockInts];
+            }
+            if (v.length != blockInts * n) {
+                v = new int[blockInts * n];
+            }
+        }
+    }
+
+    /**
+     * 最低参数（N = 2^14, r = 8, p = 1）
+     */
+    public static PasswordHashSpec minimumSpec() {
+        return PasswordHashSpec.of(NAME).with("N", MIN_N).with("r", DEFAULT_R).with("p", 1);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void hash(String password, byte[] salt, PasswordHashSpec spec, byte[] out) {
+        scrypt(password.getBytes(StandardCharsets.UTF_8), salt,
+                spec.getInt("N", MIN_N), spec.getInt("r", DEFAULT_R), spec.getInt("p", 1), out);
+    }
+
+    @Override
+    public long cost(PasswordHashSpec spec) {
+        return (long) spec.getInt("N", MIN_N) * spec.getInt("r", DEFAULT_R) * spec.getInt("p", 1);
+    }
+
+    /**
+     * 先在内存上限内按 2 的幂增大 N，N 达到上限后再增大 p
+     */
+    @Override
+    public PasswordHashSpec calibrate(long targetMillis) {
+        long targetNanos = targetMillis * 1_000_000L;
+        PasswordHashSpec spec = minimumSpec();
+        long nanos = benchmark(spec);
+
+        int n = MIN_N;
+        while (n < MAX_N && nanos * 2 <= targetNanos) {
+            n <<= 1;
+            nanos *= 2;
+        }
+        spec = spec.with("N", n);
+        if (n == MAX_N) {
+            nanos = benchmark(spec);
+            int p = (int) Math.max(1, Math.min(MAX_P, targetNanos / Math.max(1, nanos)));
+            spec = spec.with("p", p);
+        }
+        return spec;
+    }
+
+    @Override
+    public void releaseThreadResources() {
+        SCRATCH.remove();
+    }
+
+    /**
+     * 计算 scrypt 派生密钥，结果写入 out（长度即派生密钥长度）
+     */
+    public static void scrypt(byte[] password, byte[] salt, int n, int r, int p, byte[] out) {
+        if (n < 2 || (n & (n - 1)) != 0) {
+            throw new IllegalArgumentException("scrypt N must be a power of 2 greater than 1");
+        }
+        if (r < 1 || p < 1 || (long) r * p >= 1 << 30 || n > Integer.MAX_VALUE / 128 / r) {
+            throw new IllegalArgumentException("Invalid scrypt parameters");
+        }
+
+        Scratch scratch = SCRATCH.get();
+        scratch.ensure(n, r, p);
+        int length = p * 128 * r;
+
+        HmacSha256 hmac = HmacSha256.get(password);
+        Pbkdf2Hasher.derive(hmac, salt, salt.length, 1, scratch.b, 0, length);
+        for (int i = 0; i < p; i++) {
+            _smix(scratch, i * 128 * r, r, n);
+        }
+        Pbkdf2Hasher.derive(hmac, scratch.b, length, 1, out, 0, out.length);
+    }
+
+    /**
+     * ROMix：先顺序填充 V，再按数据相关的顺序读取 V
+     */
+    private static void _smix(Scratch scratch, int offset, int r, int n) {
+        byte[] b = scratch.b;
+        int[] x = scratch.x;
+        int[] v = scratch.v;
+        int blockInts = 32 * r;
+        for (int k = 0; k < blockInts; k++) {
+            int at = offset + k * 4;
+            x[k] = (b[at] & 0xFF) | (b[at + 1] & 0xFF) << 8 | (b[at + 2] & 0xFF) << 16 | (b[at + 3] & 0xFF) << 24;
+        }
+
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(x, 0, v, i * blockInts, blockInts);
+            _blockMix(scratch, r);
+        }
+        for (int i = 0; i < n; i++) {
+            int j = x[(2 * r - 1) * 16] & (n - 1);
+            int base = j * blockInts;
+            for (int k = 0; k < blockInts; k++) {
+                x[k] ^= v[base + k];
+            }
+            _blockMix(scratch, r);
+        }
+
+        for (int k = 0; k < blockInts; k++) {
+            int at = offset + k * 4;
+            b[at] = (byte) x[k];
+            b[at + 1] = (byte) (x[k] >>> 8);
+            b[at + 2] = (byte) (x[k] >>> 16);
+            b[at + 3] = (byte) (x[k] >>> 24);
+        }
+    }
+
+    /**
+     * BlockMix-Salsa20/8，结果写回 x，偶数块排在前半部分，奇数块排在后半部分
+     */
+    private static void _blockMix(Scratch scratch, int r) {
+        int[] block = scratch.x;
+        int[] t = scratch.t;
+        System.arraycopy(block, (2 * r - 1) * 16, t, 0, 16);
+        for (int i = 0; i < 2 * r; i++) {
+            for (int k = 0; k < 16; k++) {
+                t[k] ^= block[i * 16 + k];
+            }
+            _salsa20_8(t);
+            int target = (i & 1) == 0 ? (i / 2) * 16 : (r + i / 2) * 16;
+            System.arraycopy(t, 0, scratch.y, target, 16);
+        }
+        System.arraycopy(scratch.y, 0, block, 0, 32 * r);
+    }
+
+    private static void _salsa20_8(int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3], x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11], x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+        for (int i = 0; i < 8; i += 2) {
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);
+            x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);
+            x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);
+            x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);
+            x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);
+            x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);
+            x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);
+            x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);
+            x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);
+            x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);
+            x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);
+            x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);
+            x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);
+            x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);
+            x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+        b[0] += x0; b[1] += x1; b[2] += x2; b[3] += x3; b[4] += x4; b[5] += x5; b[6] += x6; b[7] += x7;
+        b[8] += x8; b[9] += x9; b[10] += x10; b[11] += x11; b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+}
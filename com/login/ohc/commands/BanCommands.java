@@ -0,0 +1,117 @@
+package com.login.ohc.commands;
+
+import com.login.ohc.data.LockoutIndex;
+import com.login.ohc.data.PlayerDataManager;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.class_124;
+import net.minecraft.class_2168;
+import net.minecraft.class_2170;
+import net.minecraft.class_2561;
+import net.minecraft.class_5250;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * 封停管理命令
+ * 按结束时间分页查看被封停和冷却中的玩家，解除封停
+ */
+public class BanCommands {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BanCommands.class);
+    private static final int PAGE_SIZE = 10;
+    
+    /**
+     * 注册封停管理命令
+     */
+    public static void registerCommands() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
+            _registerBansCommand(dispatcher);
+        });
+        
+        LOGGER.info("封停管理命令已注册");
+    }
+    
+    /**
+     * 注册封停命令 /ohc-bans [页码] | cooldowns [页码] | lift <玩家名>
+     */
+    private static void _registerBansCommand(CommandDispatcher<class_2168> dispatcher) {
+        dispatcher.register(
+            class_2170.method_9247("ohc-bans")
+                .requires(source -> source.method_9259(3)) // 需要管理员权限
+                .then(class_2170.method_9247("cooldowns")
+                    .then(class_2170.method_9244("page", IntegerArgumentType.integer(1))
+                        .executes(context -> _executeList(context, false, IntegerArgumentType.getInteger(context, "page")))
+                    )
+                    .executes(context -> _executeList(context, false, 1))
+                )
+                .then(class_2170.method_9247("lift")
+                    .then(class_2170.method_9244("player", StringArgumentType.word())
+                        .executes(BanCommands::_executeLift)
+                    )
+                )
+                .then(class_2170.method_9244("page", IntegerArgumentType.integer(1))
+                    .executes(context -> _executeList(context, true, IntegerArgumentType.getInteger(context, "page")))
+                )
+                .executes(context -> _executeList(context, true, 1))
+        );
+    }
+    
+    /**
+     * 分页列出被封停或冷却中的玩家（按结束时间从早到晚）
+     */
+    private static int _executeList(CommandContext<class_2168> context, boolean bans, int page) {
+        class_2168 source = context.getSource();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        LockoutIndex index = bans ? dataManager.getBanIndex() : dataManager.getCooldownIndex();
+        String title = bans ? "封停" : "冷却";
+        
+        List<LockoutIndex.Entry> entries = index.list((page - 1) * PAGE_SIZE, PAGE_SIZE);
+        int total = index.size();
+        int pages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        
+        class_5250 message = class_2561.method_43470("§a" + title + "中的玩家: §f" + total + " §7（第 " + page + "/" + pages + " 页）");
+        if (entries.isEmpty()) {
+            message.method_10852(class_2561.method_43470("\n§7没有" + title + "中的玩家").method_27692(class_124.field_1080));
+        }
+        long currentTime = System.currentTimeMillis();
+        for (LockoutIndex.Entry entry : entries) {
+            message.method_10852(class_2561.method_43470("\n§f" + entry.playerName() + " §7剩余 "
+                    + _formatRemaining(entry.endTime() - currentTime)).method_27692(class_124.field_1080));
+        }
+        source.method_9226(() -> message, false);
+        return entries.size();
+    }
+    
+    /**
+     * 解除玩家的封停和冷却
+     */
+    private static int _executeLift(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        String targetPlayerName = StringArgumentType.getString(context, "player");
+        
+        if (!PlayerDataManager.getInstance().liftLockout(targetPlayerName)) {
+            source.method_9213(class_2561.method_43470("§c玩家 " + targetPlayerName + " 没有被封停或冷却"));
+            return 0;
+        }
+        
+        source.method_9226(() -> class_2561.method_43470("§a已解除玩家 " + targetPlayerName + " 的封停和冷却"), true);
+        LOGGER.info("管理员 {} 解除了玩家 {} 的封停", source.method_9214(), targetPlayerName);
+        return 1;
+    }
+    
+    /**
+     * 格式化剩余时间
+     */
+    private static String _formatRemaining(long millis) {
+        long minutes = Math.max(1, (millis + 59_999) / 60_000);
+        if (minutes < 60) {
+            return minutes + " 分钟";
+        }
+        return (minutes / 60) + " 小时 " + (minutes % 60) + " 分钟";
+    }
+}
@@ -1,7 +1,14 @@
 package com.login.ohc.commands;
 
+import com.login.ohc.auth.LoginAdmission;
+import com.login.ohc.auth.LoginTimeout;
 import com.login.ohc.config.MessageConfig;
+import com.login.ohc.data.PlayerDataManager;
+import com.login.ohc.data.PlayerSessionManager;
 import com.login.ohc.effects.BlindnessEffectManager;
+import com.login.ohc.events.ServerEventHandler;
+import com.login.ohc.events.TickScheduler;
+import com.login.ohc.restrictions.RestrictedPlayerRegistry;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
@@ -25,6 +32,7 @@ public class ConfigCommands {
     public static void registerCommands() {
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
             _registerReloadCommand(dispatcher);
+            _registerStatusCommand(dispatcher);
         });
         
         LOGGER.info("配置管理命令已注册");
@@ -41,6 +49,38 @@ public class ConfigCommands {
         );
     }
     
+    /**
+     * 注册运行状态命令
+     */
+    private static void _registerStatusCommand(CommandDispatcher<class_2168> dispatcher) {
+        dispatcher.register(
+            class_2170.method_9247("ohc-status")
+                .requires(source -> source.method_9259(3)) // 需要管理员权限
+                .executes(ConfigCommands::_executeStatus)
+        );
+    }
+    
+    /**
+     * 显示登录相关的运行状态
+     */
+    private static int _executeStatus(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        LoginAdmission admission = LoginAdmission.getInstance();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        
+        class_2561 message = class_2561.method_43470("§a登录状态")
+                .method_10852(class_2561.method_43470("\n§7未登录玩家: " + PlayerSessionManager.getInstance().getUnloggedPlayerCount()
+                        + "，登录超时断开: " + LoginTimeout.getInstance().getTimedOutCount()
+                        + "，移动拉回: " + RestrictedPlayerRegistry.getInstance().getCorrectionCount()).method_27692(class_124.field_1080))
+                .method_10852(class_2561.method_43470("\n§7登录排队: " + admission.getQueuedCount() + "，已放行: " + admission.getAdmittedCount()
+                        + "，已拒绝: " + admission.getRejectedCount() + "，排队超时: " + admission.getExpiredCount()).method_27692(class_124.field_1080))
+                .method_10852(class_2561.method_43470("\n§7待执行的延迟任务: " + TickScheduler.getInstance().getPendingCount()).method_27692(class_124.field_1080))
+                .method_10852(class_2561.method_43470("\n§7等待过期清理: " + dataManager.getPendingExpiryCount() + "，已清除过期冷却/封停: "
+                        + dataManager.getSweptLockoutCount() + "，已删除空记录: " + dataManager.getPurgedRecordCount()).method_27692(class_124.field_1080));
+        source.method_9226(() -> message, false);
+        return 1;
+    }
+    
     /**
      * 执行重载配置命令
      */
@@ -54,6 +94,12 @@ public class ConfigCommands {
             // 清理失明效果记录（配置可能已更改）
             BlindnessEffectManager.getInstance().clearAllRecords();
             
+            // 应用新的玩家记录缓存容量
+            PlayerDataManager.getInstance().getCache().setMaxOfflineEntries(MessageConfig.getInstance().getPlayerCacheSize());
+            
+            // 应用新的登录准入控制参数
+            ServerEventHandler.applyLoginAdmissionConfig();
+            
             class_2561 successMessage = class_2561.method_43470("§a配置文件重载成功！")
                     .method_10852(class_2561.method_43470("\n§7所有消息配置已更新").method_27692(class_124.field_1080));
             source.method_9226(() -> successMessage, true);
@@ -1,8 +1,12 @@
 package com.login.ohc.commands;
 
+import com.login.ohc.auth.AuthWorkerPool;
+import com.login.ohc.auth.LoginAdmission;
+import com.login.ohc.auth.PasswordCredential;
 import com.login.ohc.config.MessageConfig;
 import com.login.ohc.data.PlayerData;
 import com.login.ohc.data.PlayerDataManager;
+import com.login.ohc.data.PlayerSessionManager;
 import com.login.ohc.events.ServerEventHandler;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.StringArgumentType;
@@ -93,7 +97,7 @@ public class LoginCommands {
         MessageConfig config = MessageConfig.getInstance();
         
         // 检查是否已登录
-        if (playerData.isLoggedIn()) {
+        if (PlayerSessionManager.getInstance().isLoggedIn(player)) {
             player.method_64398(class_2561.method_43470(config.getCommandMessage("already_logged_in")).method_27692(class_124.field_1054));
             return 1;
         }
@@ -120,12 +124,11 @@ public class LoginCommands {
             return 0;
         }
         
-        // 验证密码
-        if (playerData.verifyPassword(password)) {
-            ServerEventHandler.handleLoginSuccess(player);
-        } else {
-            ServerEventHandler.handleLoginFailure(player);
-        }
+        // 先经过全服准入控制，放行后再计算哈希
+        AuthWorkerPool.SubmitResult result = LoginAdmission.getInstance().offer(player,
+                current -> _submitLogin(current, password),
+                current -> _sendSubmitError(current, AuthWorkerPool.SubmitResult.BUSY));
+        _sendSubmitError(player, result);
         } catch (Exception e) {
             LOGGER.error("Error executing login command", e);
         }
@@ -158,14 +161,11 @@ public class LoginCommands {
             return 0;
         }
         
-        // 设置密码
-        playerData.setPassword(password);
-        dataManager.savePlayerData(playerData);
-        
-        // 自动登录
-        ServerEventHandler.handleLoginSuccess(player);
-        
-        LOGGER.info("玩家 {} 设置了密码", playerName);
+        // 经过全服准入控制后在验证线程中生成密码凭据，设置后自动登录
+        AuthWorkerPool.SubmitResult result = LoginAdmission.getInstance().offer(player,
+                current -> _submitPasswordSet(current, password),
+                current -> _sendSubmitError(current, AuthWorkerPool.SubmitResult.BUSY));
+        _sendSubmitError(player, result);
         } catch (Exception e) {
             LOGGER.error("Error executing set password command", e);
         }
@@ -193,18 +193,11 @@ public class LoginCommands {
         }
         
         // 检查是否已登录
-        if (!playerData.isLoggedIn()) {
+        if (!PlayerSessionManager.getInstance().isLoggedIn(player)) {
             player.method_64398(class_2561.method_43470(config.getCommandMessage("must_login_first")).method_27692(class_124.field_1061));
             return 0;
         }
         
-        // 验证旧密码
-        if (!playerData.verifyPassword(oldPassword)) {
-            player.method_64398(class_2561.method_43470(config.getCommandMessage("password_change_failed")).method_27692(class_124.field_1061));
-            LOGGER.warn("玩家 {} 尝试修改密码但旧密码错误", playerName);
-            return 0;
-        }
-        
         // 验证新密码格式
         if (!_isValidPassword(newPassword)) {
             _sendPasswordFormatError(player, newPassword);
@@ -217,12 +210,11 @@ public class LoginCommands {
             return 0;
         }
         
-        // 修改密码
-        playerData.setPassword(newPassword);
-        dataManager.savePlayerData(playerData);
-        
-        player.method_64398(class_2561.method_43470(config.getCommandMessage("password_change_success")).method_27692(class_124.field_1060));
-        LOGGER.info("玩家 {} 修改了密码", playerName);
+        // 修改密码需要两次完整的哈希计算，同样经过全服准入控制
+        AuthWorkerPool.SubmitResult result = LoginAdmission.getInstance().offer(player,
+                current -> _submitPasswordChange(current, oldPassword, newPassword),
+                current -> _sendSubmitError(current, AuthWorkerPool.SubmitResult.BUSY));
+        _sendSubmitError(player, result);
         } catch (Exception e) {
             LOGGER.error("Error executing change password command", e);
         }
@@ -291,6 +283,112 @@ public class LoginCommands {
         return true;
     }
     
+    /**
+     * 准入控制放行后在验证线程中生成密码凭据，设置后自动登录
+     */
+    private static void _submitPasswordSet(class_3222 player, String password) {
+        String playerName = player.method_7334().getName();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        AuthWorkerPool.SubmitResult result = AuthWorkerPool.getInstance().submit(player,
+                () -> PasswordCredential.create(password),
+                (current, credential) -> {
+                    if (dataManager.getPlayerData(playerName).hasPassword()) {
+                        return;
+                    }
+                    dataManager.updatePlayerData(playerName, data -> data.setCredential(credential));
+                    ServerEventHandler.handleLoginSuccess(current);
+                    LOGGER.info("玩家 {} 设置了密码", playerName);
+                },
+                LoginCommands::_sendAuthError);
+        _sendSubmitError(player, result);
+    }
+    
+    /**
+     * 准入控制放行后在验证线程中验证旧密码并生成新凭据，旧密码错误时结果为 null
+     * 只有凭据在计算期间未被修改（例如管理员删除或重置密码）时才替换
+     */
+    private static void _submitPasswordChange(class_3222 player, String oldPassword, String newPassword) {
+        String playerName = player.method_7334().getName();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        MessageConfig config = MessageConfig.getInstance();
+        // 排队期间密码可能已被管理员删除
+        PasswordCredential oldCredential = dataManager.getPlayerData(playerName).getCredential();
+        if (oldCredential == null) {
+            _sendAuthError(player);
+            return;
+        }
+        
+        AuthWorkerPool.SubmitResult result = AuthWorkerPool.getInstance().submit(player,
+                () -> oldCredential.matches(oldPassword) ? PasswordCredential.create(newPassword) : null,
+                (current, newCredential) -> {
+                    if (newCredential == null) {
+                        current.method_64398(class_2561.method_43470(config.getCommandMessage("password_change_failed")).method_27692(class_124.field_1061));
+                        LOGGER.warn("玩家 {} 尝试修改密码但旧密码错误", playerName);
+                        return;
+                    }
+                    boolean[] replaced = new boolean[1];
+                    dataManager.updatePlayerData(playerName, data -> replaced[0] = data.upgradeCredential(oldCredential, newCredential));
+                    if (!replaced[0]) {
+                        current.method_64398(class_2561.method_43470(config.getCommandMessage("password_change_conflict")).method_27692(class_124.field_1061));
+                        LOGGER.warn("玩家 {} 修改密码期间密码已被管理员修改，未替换", playerName);
+                        return;
+                    }
+                    current.method_64398(class_2561.method_43470(config.getCommandMessage("password_change_success")).method_27692(class_124.field_1060));
+                    LOGGER.info("玩家 {} 修改了密码", playerName);
+                },
+                LoginCommands::_sendAuthError);
+        _sendSubmitError(player, result);
+    }
+    
+    /**
+     * 准入控制放行后提交登录验证，结果回到服务器线程处理
+     * 旧算法或低于当前强度的凭据在验证成功后重新哈希
+     */
+    private static void _submitLogin(class_3222 player, String password) {
+        String playerName = player.method_7334().getName();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        // 排队期间密码可能已被管理员删除
+        PasswordCredential credential = dataManager.getPlayerData(playerName).getCredential();
+        if (credential == null) {
+            _sendAuthError(player);
+            return;
+        }
+        
+        AuthWorkerPool.SubmitResult result = AuthWorkerPool.getInstance().submit(player,
+                () -> credential.verify(password),
+                (current, verification) -> {
+                    if (verification.matched()) {
+                        if (verification.upgraded() != null) {
+                            dataManager.updatePlayerData(playerName, data -> data.upgradeCredential(credential, verification.upgraded()));
+                        }
+                        ServerEventHandler.handleLoginSuccess(current);
+                    } else {
+                        ServerEventHandler.handleLoginFailure(current);
+                    }
+                },
+                LoginCommands::_sendAuthError);
+        _sendSubmitError(player, result);
+    }
+    
+    /**
+     * 验证任务未被接受时通知玩家
+     */
+    private static void _sendSubmitError(class_3222 player, AuthWorkerPool.SubmitResult result) {
+        MessageConfig config = MessageConfig.getInstance();
+        if (result == AuthWorkerPool.SubmitResult.IN_FLIGHT) {
+            player.method_64398(class_2561.method_43470(config.getErrorMessage("auth_in_progress")).method_27692(class_124.field_1054));
+        } else if (result == AuthWorkerPool.SubmitResult.BUSY) {
+            player.method_64398(class_2561.method_43470(config.getErrorMessage("auth_busy")).method_27692(class_124.field_1061));
+        }
+    }
+    
+    /**
+     * 验证过程出错时通知玩家
+     */
+    private static void _sendAuthError(class_3222 player) {
+        player.method_64398(class_2561.method_43470(MessageConfig.getInstance().getErrorMessage("auth_error")).method_27692(class_124.field_1061));
+    }
+    
     /**
      * 发送密码格式错误消息
      */
@@ -358,7 +456,7 @@ public class LoginCommands {
             }
             
             PlayerDataManager dataManager = PlayerDataManager.getInstance();
-            PlayerData playerData = dataManager.getPlayerData(targetPlayerName);
+            PlayerData playerData = dataManager.findPlayerData(targetPlayerName);
             
             if (playerData == null || !playerData.hasPassword()) {
                 String message = config.getAdminMessage("delete_password_not_found")
@@ -367,9 +465,9 @@ public class LoginCommands {
                 return 0;
             }
             
-            // 删除密码
-            playerData.clearPassword();
-            dataManager.savePlayerData(playerData);
+            // 删除密码，在线的目标玩家需要重新设置密码
+            dataManager.updatePlayerData(targetPlayerName, PlayerData::clearPassword);
+            PlayerSessionManager.getInstance().logout(targetPlayerName);
             
             String message = config.getAdminMessage("delete_password_success")
                 .replace("{player}", targetPlayerName);
@@ -413,22 +511,28 @@ public class LoginCommands {
             }
             
             PlayerDataManager dataManager = PlayerDataManager.getInstance();
-            PlayerData playerData = dataManager.getPlayerData(targetPlayerName);
             
-            if (playerData == null) {
-                playerData = new PlayerData(targetPlayerName);
+            // 在验证线程中生成新密码凭据
+            AuthWorkerPool.SubmitResult result = AuthWorkerPool.getInstance().submit(targetPlayerName, source.method_9211(),
+                    () -> PasswordCredential.create(newPassword),
+                    credential -> {
+                        dataManager.updatePlayerData(targetPlayerName, data -> data.setCredential(credential));
+                        PlayerSessionManager.getInstance().logout(targetPlayerName); // 重置登录状态
+                        
+                        String message = config.getAdminMessage("reset_password_success")
+                            .replace("{player}", targetPlayerName);
+                        source.method_45068(class_2561.method_43470(message));
+                        
+                        LOGGER.info("管理员 {} 为玩家 {} 重置了密码", source.method_9214(), targetPlayerName);
+                    },
+                    () -> source.method_45068(class_2561.method_43470(config.getErrorMessage("auth_error"))));
+            if (result == AuthWorkerPool.SubmitResult.IN_FLIGHT) {
+                source.method_45068(class_2561.method_43470(config.getErrorMessage("auth_in_progress")));
+                return 0;
+            } else if (result == AuthWorkerPool.SubmitResult.BUSY) {
+                source.method_45068(class_2561.method_43470(config.getErrorMessage("auth_busy")));
+                return 0;
             }
-            
-            // 设置新密码
-            playerData.setPassword(newPassword);
-            playerData.setLoggedIn(false); // 重置登录状态
-            dataManager.savePlayerData(playerData);
-            
-            String message = config.getAdminMessage("reset_password_success")
-                .replace("{player}", targetPlayerName);
-            source.method_45068(class_2561.method_43470(message));
-            
-            LOGGER.info("管理员 {} 为玩家 {} 重置了密码", source.method_9214(), targetPlayerName);
             return 1;
             
         } catch (Exception e) {
@@ -0,0 +1,269 @@
+package com.login.ohc.commands;
+
+import com.login.ohc.config.MessageConfig;
+import com.login.ohc.data.PlayerDataCache;
+import com.login.ohc.data.PlayerDataManager;
+import com.login.ohc.data.storage.BackupManager;
+import com.login.ohc.data.storage.PlayerDataStorage;
+import com.login.ohc.data.storage.StorageMigration;
+import com.login.ohc.data.storage.TieredPlayerDataStorage;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.class_124;
+import net.minecraft.class_2168;
+import net.minecraft.class_2170;
+import net.minecraft.class_2561;
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 数据存储管理命令
+ * 提供查看存储状态、在存储后端之间迁移数据、在线备份等管理功能
+ */
+public class StorageCommands {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StorageCommands.class);
+    
+    /**
+     * 注册存储管理命令
+     */
+    public static void registerCommands() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
+            _registerStorageCommand(dispatcher);
+        });
+        
+        LOGGER.info("存储管理命令已注册");
+    }
+    
+    /**
+     * 注册存储命令 /ohc-storage [migrate <后端> | backup [full|verify] | tiers [archive]]
+     */
+    private static void _registerStorageCommand(CommandDispatcher<class_2168> dispatcher) {
+        dispatcher.register(
+            class_2170.method_9247("ohc-storage")
+                .requires(source -> source.method_9259(3)) // 需要管理员权限
+                .then(class_2170.method_9247("migrate")
+                    .then(class_2170.method_9244("source", StringArgumentType.word())
+                        .executes(StorageCommands::_executeMigrate)
+                    )
+                )
+                .then(class_2170.method_9247("backup")
+                    .then(class_2170.method_9247("full")
+                        .executes(context -> _executeBackup(context, true))
+                    )
+                    .then(class_2170.method_9247("verify")
+                        .executes(StorageCommands::_executeVerifyBackup)
+                    )
+                    .executes(context -> _executeBackup(context, false))
+                )
+                .then(class_2170.method_9247("tiers")
+                    .then(class_2170.method_9247("archive")
+                        .executes(StorageCommands::_executeArchive)
+                    )
+                    .executes(StorageCommands::_executeTiers)
+                )
+                .executes(StorageCommands::_executeInfo)
+        );
+    }
+    
+    /**
+     * 显示存储状态
+     */
+    private static int _executeInfo(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        PlayerDataStorage storage = dataManager.getStorage();
+        
+        if (storage == null) {
+            source.method_9213(class_2561.method_43470("§c玩家数据存储尚未初始化"));
+            return 0;
+        }
+        
+        PlayerDataCache cache = dataManager.getCache();
+        long lookups = cache.getHits() + cache.getMisses();
+        String hitRate = lookups == 0 ? "-" : String.format("%.1f%%", cache.getHits() * 100.0 / lookups);
+        
+        class_2561 message = class_2561.method_43470("§a存储后端: §f" + storage.getName())
+                .method_10852(class_2561.method_43470("\n§7玩家记录: " + storage.size()).method_27692(class_124.field_1080))
+                .method_10852(class_2561.method_43470("\n§7已载入内存: " + dataManager.getLoadedPlayerCount()
+                        + "（在线 " + cache.getPinnedCount() + "，离线上限 " + cache.getMaxOfflineEntries() + "）").method_27692(class_124.field_1080))
+                .method_10852(class_2561.method_43470("\n§7缓存命中: " + cache.getHits() + "，未命中: " + cache.getMisses()
+                        + "，命中率: " + hitRate + "，淘汰: " + cache.getEvictions()).method_27692(class_124.field_1080));
+        source.method_9226(() -> message, false);
+        return 1;
+    }
+    
+    /**
+     * 从指定存储后端迁移数据到当前后端（在后台线程执行）
+     */
+    private static int _executeMigrate(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        String sourceBackend = StringArgumentType.getString(context, "source");
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        PlayerDataStorage target = dataManager.getStorage();
+        
+        if (target == null || target.getName().equals(sourceBackend)) {
+            source.method_9213(class_2561.method_43470("§c不能从当前使用的存储后端迁移数据"));
+            return 0;
+        }
+        
+        MinecraftServer server = source.method_9211();
+        PlayerDataStorage legacy = dataManager.createStorage(sourceBackend);
+        source.method_9226(() -> class_2561.method_43470("§e正在从 " + legacy.getName() + " 迁移玩家数据..."), true);
+        
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                legacy.open();
+                return StorageMigration.migrate(legacy, target);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } finally {
+                legacy.close();
+            }
+        }).whenComplete((copied, error) -> server.execute(() -> {
+            if (error != null) {
+                source.method_9213(class_2561.method_43470("§c数据迁移失败: " + error.getMessage()));
+                LOGGER.error("数据迁移失败", error);
+            } else {
+                source.method_9226(() -> class_2561.method_43470("§a数据迁移完成，共导入 " + copied + " 条记录"), true);
+                LOGGER.info("管理员 {} 从 {} 迁移了 {} 条玩家记录", source.method_9214(), legacy.getName(), copied);
+            }
+        }));
+        return 1;
+    }
+    
+    /**
+     * 执行在线备份（在后台线程读取存储，不暂停服务器）
+     */
+    private static int _executeBackup(CommandContext<class_2168> context, boolean forceFull) {
+        class_2168 source = context.getSource();
+        BackupManager backupManager = PlayerDataManager.getInstance().getBackupManager();
+        
+        if (backupManager == null) {
+            source.method_9213(class_2561.method_43470("§c玩家数据存储尚未初始化"));
+            return 0;
+        }
+        
+        MinecraftServer server = source.method_9211();
+        MessageConfig config = MessageConfig.getInstance();
+        int maxIncrementals = config.getBackupMaxIncrementals();
+        int keepSets = config.getBackupKeepSets();
+        source.method_9226(() -> class_2561.method_43470("§e正在备份玩家数据..."), true);
+        
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return backupManager.backup(forceFull, maxIncrementals, keepSets);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }).whenComplete((result, error) -> server.execute(() -> {
+            if (error != null) {
+                source.method_9213(class_2561.method_43470("§c数据备份失败: " + error.getMessage()));
+                LOGGER.error("数据备份失败", error);
+            } else if (result.file() == null) {
+                source.method_9226(() -> class_2561.method_43470("§a上次备份后没有数据变更，无需备份"), true);
+            } else {
+                String kind = result.full() ? "全量" : "增量";
+                source.method_9226(() -> class_2561.method_43470("§a" + kind + "备份完成，共 " + result.records()
+                        + " 条记录: §f" + result.file().getFileName()), true);
+                LOGGER.info("管理员 {} 创建了{}备份 {}（{} 条记录）", source.method_9214(), kind, result.file(), result.records());
+            }
+        }));
+        return 1;
+    }
+    
+    /**
+     * 校验最新的备份集
+     */
+    private static int _executeVerifyBackup(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        BackupManager backupManager = PlayerDataManager.getInstance().getBackupManager();
+        
+        if (backupManager == null) {
+            source.method_9213(class_2561.method_43470("§c玩家数据存储尚未初始化"));
+            return 0;
+        }
+        
+        MinecraftServer server = source.method_9211();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return backupManager.verifyLatestSet();
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }).whenComplete((records, error) -> server.execute(() -> {
+            if (error != null) {
+                source.method_9213(class_2561.method_43470("§c备份校验失败: " + error.getMessage()));
+            } else {
+                source.method_9226(() -> class_2561.method_43470("§a最新备份集完整，共 " + records + " 条记录"), false);
+            }
+        }));
+        return 1;
+    }
+    
+    /**
+     * 显示分层存储状态
+     */
+    private static int _executeTiers(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        if (!(PlayerDataManager.getInstance().getStorage() instanceof TieredPlayerDataStorage tiered)) {
+            source.method_9213(class_2561.method_43470("§c未启用归档（archive_after_days 为 0）"));
+            return 0;
+        }
+        
+        MinecraftServer server = source.method_9211();
+        int archiveAfterDays = MessageConfig.getInstance().getArchiveAfterDays();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return class_2561.method_43470("§a活跃数据: §f" + tiered.getHotSize() + " 条记录")
+                        .method_10852(class_2561.method_43470("\n§a归档数据: §f" + tiered.getArchivedSize() + " 条记录，"
+                                + tiered.getSegmentCount() + " 个段文件，" + (tiered.getArchiveBytes() / 1024) + " KB"))
+                        .method_10852(class_2561.method_43470("\n§7超过 " + archiveAfterDays + " 天未登录的玩家会被归档").method_27692(class_124.field_1080));
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }).whenComplete((message, error) -> server.execute(() -> {
+            if (error != null) {
+                source.method_9213(class_2561.method_43470("§c读取归档信息失败: " + error.getMessage()));
+            } else {
+                source.method_9226(() -> message, false);
+            }
+        }));
+        return 1;
+    }
+    
+    /**
+     * 立即归档长期未登录的玩家（在后台线程执行）
+     */
+    private static int _executeArchive(CommandContext<class_2168> context) {
+        class_2168 source = context.getSource();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        if (!(dataManager.getStorage() instanceof TieredPlayerDataStorage)) {
+            source.method_9213(class_2561.method_43470("§c未启用归档（archive_after_days 为 0）"));
+            return 0;
+        }
+        
+        MinecraftServer server = source.method_9211();
+        source.method_9226(() -> class_2561.method_43470("§e正在归档长期未登录的玩家..."), true);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataManager.archiveIdlePlayers();
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }).whenComplete((result, error) -> server.execute(() -> {
+            if (error != null) {
+                source.method_9213(class_2561.method_43470("§c归档失败: " + error.getMessage()));
+                LOGGER.error("归档玩家数据失败", error);
+            } else {
+                source.method_9226(() -> class_2561.method_43470("§a归档完成，移入归档 " + result.archived() + " 条记录"), true);
+                LOGGER.info("管理员 {} 归档了 {} 条玩家记录", source.method_9214(), result.archived());
+            }
+        }));
+        return 1;
+    }
+}
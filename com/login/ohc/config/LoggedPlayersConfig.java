@@ -1,15 +1,12 @@
 package com.login.ohc.config;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.login.ohc.utils.JsonFiles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -20,19 +17,20 @@ import java.util.Set;
 /**
  * 已登录玩家配置管理器
  * 负责管理已成功登录玩家的昵称列表
+ * 配置文件以流式方式读写，昵称直接读入内存集合，不会先构建整个 JSON 对象树
  */
 public class LoggedPlayersConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger(LoggedPlayersConfig.class);
     private static LoggedPlayersConfig _instance;
     private static final String CONFIG_FILE_NAME = "logged_players.json";
     private static final String CONFIG_DIR = "config";
+    private static final String CONFIG_VERSION = "2.5.0";
     
-    private JsonObject _config;
-    private final Gson _gson;
+    private String _configVersion;
     private Set<String> _loggedPlayerNames;
     
     private LoggedPlayersConfig() {
-        _gson = new GsonBuilder().setPrettyPrinting().create();
+        _configVersion = CONFIG_VERSION;
         _loggedPlayerNames = new HashSet<>();
         _loadConfig();
     }
@@ -66,35 +64,40 @@ public class LoggedPlayersConfig {
             _createDefaultConfig(configFile);
         }
         
-        try (FileReader reader = new FileReader(configFile)) {
-            _config = _gson.fromJson(reader, JsonObject.class);
+        // 加载玩家昵称列表到内存
+        _loggedPlayerNames.clear();
+        try (JsonReader reader = JsonFiles.openReader(configPath)) {
+            _readConfig(reader);
             LOGGER.info("已登录玩家配置文件加载成功: {}", configPath);
-            
-            // 加载玩家昵称列表到内存
-            _loadPlayerNamesFromConfig();
-            
-        } catch (IOException e) {
+        } catch (IOException | IllegalStateException e) {
             LOGGER.error("加载已登录玩家配置文件失败: {}", configPath, e);
-            _config = _createDefaultConfigObject();
+            _configVersion = CONFIG_VERSION;
             _loggedPlayerNames.clear();
         }
+        
+        LOGGER.info("已加载 {} 个已登录玩家昵称", _loggedPlayerNames.size());
     }
     
     /**
-     * 从配置对象加载玩家昵称到内存
+     * 逐个读取配置项，玩家昵称直接放入内存集合
      */
-    private void _loadPlayerNamesFromConfig() {
-        _loggedPlayerNames.clear();
-        
-        if (_config.has("logged_players")) {
-            JsonArray playersArray = _config.getAsJsonArray("logged_players");
-            for (int i = 0; i < playersArray.size(); i++) {
-                String playerName = playersArray.get(i).getAsString();
-                _loggedPlayerNames.add(playerName);
+    private void _readConfig(JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("config_version".equals(key) && reader.peek() == JsonToken.STRING) {
+                _configVersion = reader.nextString();
+            } else if ("logged_players".equals(key) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    _loggedPlayerNames.add(reader.nextString());
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
             }
         }
-        
-        LOGGER.info("已加载 {} 个已登录玩家昵称", _loggedPlayerNames.size());
+        reader.endObject();
     }
     
     /**
@@ -105,11 +108,7 @@ public class LoggedPlayersConfig {
             // 确保配置目录存在
             Files.createDirectories(configFile.getParentFile().toPath());
             
-            JsonObject defaultConfig = _createDefaultConfigObject();
-            
-            try (FileWriter writer = new FileWriter(configFile)) {
-                _gson.toJson(defaultConfig, writer);
-            }
+            _writeConfigFile(configFile.toPath());
             
             LOGGER.info("已创建默认已登录玩家配置文件: {}", configFile.getPath());
         } catch (IOException e) {
@@ -117,22 +116,6 @@ public class LoggedPlayersConfig {
         }
     }
     
-    /**
-     * 创建默认配置对象
-     */
-    private JsonObject _createDefaultConfigObject() {
-        JsonObject config = new JsonObject();
-        
-        // 配置文件版本号
-        config.addProperty("config_version", "2.5.0");
-        
-        // 已登录玩家昵称列表
-        JsonArray loggedPlayers = new JsonArray();
-        config.add("logged_players", loggedPlayers);
-        
-        return config;
-    }
-    
     /**
      * 添加已登录玩家昵称
      */
@@ -201,24 +184,32 @@ public class LoggedPlayersConfig {
      * 保存配置到文件
      */
     private void _saveConfig() {
-        // 更新配置对象中的玩家列表
-        JsonArray playersArray = new JsonArray();
-        for (String playerName : _loggedPlayerNames) {
-            playersArray.add(playerName);
-        }
-        _config.add("logged_players", playersArray);
-        
-        // 保存到文件
         Path configPath = Paths.get(CONFIG_DIR, CONFIG_FILE_NAME);
-        File configFile = configPath.toFile();
         
-        try (FileWriter writer = new FileWriter(configFile)) {
-            _gson.toJson(_config, writer);
+        try {
+            _writeConfigFile(configPath);
         } catch (IOException e) {
             LOGGER.error("保存已登录玩家配置文件失败", e);
         }
     }
     
+    /**
+     * 原子写入配置文件（先写临时文件再替换，崩溃时不会留下半截文件）
+     * 以紧凑格式逐个写出玩家昵称，按设置可选 gzip 压缩
+     */
+    private void _writeConfigFile(Path path) throws IOException {
+        JsonFiles.write(path, MessageConfig.getInstance().isJsonGzipEnabled(), true, writer -> {
+            writer.beginObject();
+            writer.name("config_version").value(_configVersion);
+            writer.name("logged_players").beginArray();
+            for (String playerName : _loggedPlayerNames) {
+                writer.value(playerName);
+            }
+            writer.endArray();
+            writer.endObject();
+        });
+    }
+    
     /**
      * 获取已登录玩家数量
      */
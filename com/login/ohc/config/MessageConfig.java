@@ -3,13 +3,16 @@ package com.login.ohc.config;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
+import com.login.ohc.utils.AtomicFiles;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -20,11 +23,11 @@ import java.nio.file.Paths;
  */
 public class MessageConfig {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageConfig.class);
-    private static MessageConfig _instance;
     private static final String CONFIG_FILE_NAME = "login_messages.json";
     private static final String CONFIG_DIR = "config";
     
-    private JsonObject _config;
+    // 重载时整体替换，网络线程和后台线程也会读取配置
+    private volatile JsonObject _config;
     private final Gson _gson;
     
     private MessageConfig() {
@@ -36,10 +39,14 @@ public class MessageConfig {
      * 获取单例实例
      */
     public static MessageConfig getInstance() {
-        if (_instance == null) {
-            _instance = new MessageConfig();
-        }
-        return _instance;
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * 延迟初始化持有类，由类加载保证只创建一次
+     */
+    private static class Holder {
+        private static final MessageConfig INSTANCE = new MessageConfig();
     }
     
     /**
@@ -83,10 +90,7 @@ public class MessageConfig {
             Files.createDirectories(configFile.getParentFile().toPath());
             
             JsonObject defaultConfig = _createDefaultConfigObject();
-            
-            try (FileWriter writer = new FileWriter(configFile)) {
-                _gson.toJson(defaultConfig, writer);
-            }
+            _writeConfigFile(configFile.toPath(), defaultConfig);
             
             LOGGER.info("已创建默认消息配置文件: {}", configFile.getPath());
         } catch (IOException e) {
@@ -115,6 +119,7 @@ public class MessageConfig {
         commandMessages.addProperty("password_set_failed", "§c密码设置失败，请重试。");
         commandMessages.addProperty("password_change_success", "§a密码修改成功！");
         commandMessages.addProperty("password_change_failed", "§c密码修改失败，旧密码错误。");
+        commandMessages.addProperty("password_change_conflict", "§c密码修改失败，密码已被管理员修改。");
         commandMessages.addProperty("login_success", "§a登录成功！欢迎回来。");
         commandMessages.addProperty("login_failed", "§c登录失败，密码错误。");
         commandMessages.addProperty("already_logged_in", "§e您已经登录了。");
@@ -144,6 +149,11 @@ public class MessageConfig {
         errorMessages.addProperty("command_usage_ord", "§e用法: /sp <密码>");
         errorMessages.addProperty("command_usage_login", "§e用法: /l <密码>");
         errorMessages.addProperty("command_usage_changepassword", "§e用法: /rp <旧密码> <新密码>");
+        errorMessages.addProperty("auth_in_progress", "§e正在验证密码，请稍候...");
+        errorMessages.addProperty("auth_busy", "§c服务器繁忙，请稍后再试。");
+        errorMessages.addProperty("auth_error", "§c验证时发生错误，请稍后再试。");
+        errorMessages.addProperty("login_timeout", "§c登录超时，请重新连接。");
+        errorMessages.addProperty("storage_unavailable", "§c服务器登录数据暂不可用，请联系管理员。");
         config.add("error_messages", errorMessages);
         
         // ActionBar消息
@@ -151,6 +161,7 @@ public class MessageConfig {
         actionbarMessages.addProperty("login_required", "§c请输入密码登录: /l <密码>");
         actionbarMessages.addProperty("set_password_required", "§e请设置登录密码: /sp <密码>");
         actionbarMessages.addProperty("login_attempts_warning", "§c警告: 登录失败次数过多可能导致封停");
+        actionbarMessages.addProperty("login_timeout_countdown", "§e请在 {time} 秒内完成登录");
         config.add("actionbar_messages", actionbarMessages);
         
         // 管理员消息
@@ -182,6 +193,28 @@ public class MessageConfig {
         settings.addProperty("blindness_effect_duration", 999999);
         settings.addProperty("kick_delay_seconds", 3);
         settings.addProperty("enable_chat_restriction", true);
+        settings.addProperty("storage_backend", "json");
+        settings.addProperty("sql_jdbc_url", "jdbc:sqlite:{world}/ohc_login_data.sqlite");
+        settings.addProperty("journal_flush_interval_ms", 1000);
+        settings.addProperty("journal_compaction_threshold", 10000);
+        settings.addProperty("storage_fsync", true);
+        settings.addProperty("json_gzip", false);
+        settings.addProperty("player_cache_size", 1000);
+        settings.addProperty("archive_after_days", 180);
+        settings.addProperty("auth_worker_threads", 2);
+        settings.addProperty("auth_queue_limit", 64);
+        settings.addProperty("password_hash_algorithm", "scrypt");
+        settings.addProperty("password_hash_target_ms", 50);
+        settings.addProperty("login_attempts_per_second", 20);
+        settings.addProperty("login_attempt_burst", 40);
+        settings.addProperty("login_hashes_per_tick", 4);
+        settings.addProperty("login_queue_limit", 100);
+        settings.addProperty("login_timeout_seconds", 60);
+        settings.addProperty("login_timeout_countdown", true);
+        settings.addProperty("login_view_distance", 2);
+        settings.addProperty("login_suppress_chunk_loading", true);
+        settings.addProperty("backup_max_incrementals", 24);
+        settings.addProperty("backup_keep_sets", 2);
         config.add("settings", settings);
         
         return config;
@@ -288,14 +321,25 @@ public class MessageConfig {
      * 保存更新后的配置文件
      */
     private void _saveUpdatedConfig(File configFile) {
-        try (FileWriter writer = new FileWriter(configFile)) {
-            _gson.toJson(_config, writer);
+        try {
+            _writeConfigFile(configFile.toPath(), _config);
             LOGGER.info("配置文件已保存: {}", configFile.getPath());
         } catch (IOException e) {
             LOGGER.error("保存配置文件失败", e);
         }
     }
     
+    /**
+     * 原子写入配置文件（先写临时文件再替换，崩溃时不会留下半截文件）
+     */
+    private void _writeConfigFile(Path path, JsonObject config) throws IOException {
+        AtomicFiles.write(path, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            _gson.toJson(config, writer);
+            writer.flush();
+        }, true);
+    }
+    
     /**
      * 获取欢迎消息
      */
@@ -439,6 +483,160 @@ public class MessageConfig {
         return _getSettingAsBoolean("enable_chat_restriction", true);
     }
     
+    /**
+     * 获取玩家数据存储后端（json、kv 或 sql）
+     */
+    public String getStorageBackend() {
+        return _getSettingAsString("storage_backend", "json");
+    }
+    
+    /**
+     * 获取SQL存储的JDBC连接地址（{world} 会被替换为世界目录）
+     */
+    public String getSqlJdbcUrl() {
+        return _getSettingAsString("sql_jdbc_url", "jdbc:sqlite:{world}/ohc_login_data.sqlite");
+    }
+    
+    /**
+     * 获取变更日志批量写入间隔（毫秒）
+     */
+    public int getJournalFlushIntervalMillis() {
+        return Math.max(50, _getSettingAsInt("journal_flush_interval_ms", 1000));
+    }
+    
+    /**
+     * 获取触发快照压缩的日志条目数
+     */
+    public int getJournalCompactionThreshold() {
+        return Math.max(1, _getSettingAsInt("journal_compaction_threshold", 10000));
+    }
+    
+    /**
+     * 是否在批量写入后强制刷盘（关闭后写入更快，但断电时可能丢失最近一批变更）
+     */
+    public boolean isStorageFsyncEnabled() {
+        return _getSettingAsBoolean("storage_fsync", true);
+    }
+    
+    /**
+     * 是否以 gzip 压缩写入 JSON 数据文件（读取时会自动识别是否压缩）
+     */
+    public boolean isJsonGzipEnabled() {
+        return _getSettingAsBoolean("json_gzip", false);
+    }
+    
+    /**
+     * 获取内存中保留的离线玩家记录数量（在线玩家的记录不计入）
+     */
+    public int getPlayerCacheSize() {
+        return Math.max(0, _getSettingAsInt("player_cache_size", 1000));
+    }
+    
+    /**
+     * 获取玩家记录移入归档前的未登录天数（0 表示不归档）
+     */
+    public int getArchiveAfterDays() {
+        return Math.max(0, _getSettingAsInt("archive_after_days", 180));
+    }
+    
+    /**
+     * 获取密码验证线程数
+     */
+    public int getAuthWorkerThreads() {
+        return Math.max(1, _getSettingAsInt("auth_worker_threads", 2));
+    }
+    
+    /**
+     * 获取密码验证等待队列长度（队列满时拒绝新的验证请求）
+     */
+    public int getAuthQueueLimit() {
+        return Math.max(1, _getSettingAsInt("auth_queue_limit", 64));
+    }
+    
+    /**
+     * 获取新密码使用的哈希算法（scrypt 或 pbkdf2-sha256）
+     */
+    public String getPasswordHashAlgorithm() {
+        return _getSettingAsString("password_hash_algorithm", "scrypt");
+    }
+    
+    /**
+     * 获取单次密码哈希的目标耗时（毫秒），启动时据此校准哈希参数
+     */
+    public int getPasswordHashTargetMillis() {
+        return Math.max(1, _getSettingAsInt("password_hash_target_ms", 50));
+    }
+    
+    /**
+     * 获取全服每秒放行的登录尝试数（令牌补充速率）
+     */
+    public int getLoginAttemptsPerSecond() {
+        return Math.max(1, _getSettingAsInt("login_attempts_per_second", 20));
+    }
+    
+    /**
+     * 获取全服登录尝试的突发上限（令牌桶容量）
+     */
+    public int getLoginAttemptBurst() {
+        return Math.max(1, _getSettingAsInt("login_attempt_burst", 40));
+    }
+    
+    /**
+     * 获取每个游戏刻最多放行的登录尝试数
+     */
+    public int getLoginHashesPerTick() {
+        return Math.max(1, _getSettingAsInt("login_hashes_per_tick", 4));
+    }
+    
+    /**
+     * 获取登录尝试等待队列长度（队列满时直接拒绝）
+     */
+    public int getLoginQueueLimit() {
+        return Math.max(1, _getSettingAsInt("login_queue_limit", 100));
+    }
+    
+    /**
+     * 获取登录超时时间（秒），超时仍未登录的玩家会被断开，0 表示不限制
+     */
+    public int getLoginTimeoutSeconds() {
+        return Math.max(0, _getSettingAsInt("login_timeout_seconds", 60));
+    }
+    
+    /**
+     * 是否在动作栏显示登录超时倒计时
+     */
+    public boolean isLoginTimeoutCountdownEnabled() {
+        return _getSettingAsBoolean("login_timeout_countdown", true);
+    }
+    
+    /**
+     * 获取未登录玩家的视距（区块），0 表示不限制
+     */
+    public int getLoginViewDistance() {
+        return Math.max(0, _getSettingAsInt("login_view_distance", 2));
+    }
+    
+    /**
+     * 是否不为未登录玩家载入和生成区块
+     */
+    public boolean isLoginChunkLoadingSuppressed() {
+        return _getSettingAsBoolean("login_suppress_chunk_loading", true);
+    }
+    
+    /**
+     * 获取每个备份集中增量备份的最大数量（超过后下次备份为全量）
+     */
+    public int getBackupMaxIncrementals() {
+        return Math.max(0, _getSettingAsInt("backup_max_incrementals", 24));
+    }
+    
+    /**
+     * 获取保留的备份集数量（每个备份集为一个全量备份加其后的增量备份）
+     */
+    public int getBackupKeepSets() {
+        return Math.max(1, _getSettingAsInt("backup_keep_sets", 2));
+    }
+    
     /**
      * 获取设置项（整数）
      */
@@ -456,6 +654,23 @@ public class MessageConfig {
         return defaultValue;
     }
     
+    /**
+     * 获取设置项（字符串）
+     */
+    private String _getSettingAsString(String key, String defaultValue) {
+        try {
+            if (_config.has("settings")) {
+                JsonObject settings = _config.getAsJsonObject("settings");
+                if (settings.has(key)) {
+                    return settings.get(key).getAsString();
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("获取设置项失败: {}", key, e);
+        }
+        return defaultValue;
+    }
+    
     /**
      * 获取设置项（布尔值）
      */
@@ -0,0 +1,20 @@
+package com.login.ohc.data;
+
+/**
+ * 玩家实体上的登录状态
+ * 由 Mixin 添加到 ServerPlayerEntity，限制检查只需读取一个字段；
+ * 状态随会话更新，权威状态仍是 {@link PlayerSession}
+ */
+public interface AuthenticatedPlayer {
+
+    boolean ohc_login$isAuthenticated();
+
+    void ohc_login$setAuthenticated(boolean authenticated);
+
+    /**
+     * 玩家加入区块加载管理器时记录的"不载入区块"状态，登录后移动时清除，不会再次设置
+     */
+    boolean ohc_login$isChunkLoadingSuppressed();
+
+    void ohc_login$setChunkLoadingSuppressed(boolean suppressed);
+}
@@ -0,0 +1,60 @@
+package com.login.ohc.data;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * 按时间排序的过期索引
+ * 记录每个玩家下一次需要维护的时间（冷却或封停结束，或需要检查是否为未注册的空记录），
+ * 维护任务每次只取出已到期的玩家，不需要遍历全部记录
+ * 每个玩家只保留最早的一次到期时间，被更早时间取代的队列条目在取出时跳过
+ */
+public class ExpiryIndex {
+    private record Entry(long dueTime, String playerName) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(dueTime, other.dueTime);
+        }
+    }
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    // 玩家名 -> 当前有效的到期时间
+    private final HashMap<String, Long> dueTimes = new HashMap<>();
+
+    /**
+     * 登记玩家的到期时间，已登记更早的时间时不变（到期处理后会重新登记之后的时间）
+     */
+    public synchronized void schedule(String playerName, long dueTime) {
+        Long current = dueTimes.get(playerName);
+        if (current != null && current <= dueTime) {
+            return;
+        }
+        dueTimes.put(playerName, dueTime);
+        queue.add(new Entry(dueTime, playerName));
+    }
+
+    /**
+     * 取出一个已到期的玩家，没有到期的玩家时返回 null
+     */
+    public synchronized String pollDue(long currentTime) {
+        Entry entry;
+        while ((entry = queue.peek()) != null && entry.dueTime() <= currentTime) {
+            queue.poll();
+            Long current = dueTimes.get(entry.playerName());
+            if (current != null && current == entry.dueTime()) {
+                dueTimes.remove(entry.playerName());
+                return entry.playerName();
+            }
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return dueTimes.size();
+    }
+
+    public synchronized void clear() {
+        queue.clear();
+        dueTimes.clear();
+    }
+}
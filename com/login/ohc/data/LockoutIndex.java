@@ -0,0 +1,127 @@
+package com.login.ohc.data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 封停/冷却索引
+ * 只保存仍在有效期内的玩家名和结束时间，启动时从存储中建立，保存玩家数据时同步更新。
+ * 按玩家名查询用于握手阶段拒绝被封停的玩家，不需要载入完整的玩家记录；
+ * 另按结束时间排序，管理员分页查看时只读取需要的条目。过期的条目在查询时移除
+ * 可以从任意线程访问
+ */
+public class LockoutIndex {
+    /**
+     * 索引条目，按结束时间排序，结束时间相同时按玩家名排序
+     */
+    public record Entry(long endTime, String playerName) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int result = Long.compare(endTime, other.endTime);
+            return result != 0 ? result : playerName.compareTo(other.playerName);
+        }
+    }
+
+    // 玩家名 -> 结束时间
+    private final ConcurrentHashMap<String, Long> endTimes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ordered = new ConcurrentSkipListSet<>();
+
+    /**
+     * 按玩家记录的结束时间更新索引（未设置或已过期时移除）
+     */
+    public void update(String playerName, long endTime) {
+        boolean active = endTime > System.currentTimeMillis();
+        // 以玩家名为单位串行修改，两个集合保持一致
+        endTimes.compute(playerName, (name, current) -> {
+            if (current != null) {
+                if (active && current == endTime) {
+                    return current;
+                }
+                ordered.remove(new Entry(current, name));
+            }
+            if (!active) {
+                return null;
+            }
+            ordered.add(new Entry(endTime, name));
+            return endTime;
+        });
+    }
+
+    /**
+     * 获取结束时间，不在有效期内时返回 0
+     */
+    public long getEndTime(String playerName) {
+        Long endTime = endTimes.get(playerName);
+        if (endTime == null) {
+            return 0;
+        }
+        if (endTime <= System.currentTimeMillis()) {
+            _expire(playerName, endTime);
+            return 0;
+        }
+        return endTime;
+    }
+
+    public boolean isActive(String playerName) {
+        return getEndTime(playerName) != 0;
+    }
+
+    /**
+     * 按结束时间从早到晚分页列出仍在有效期内的条目
+     * @param offset 跳过的条目数
+     * @param limit 最多返回的条目数
+     */
+    public List<Entry> list(int offset, int limit) {
+        _expireBefore(System.currentTimeMillis());
+        List<Entry> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Entry> iterator = ordered.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    public int size() {
+        return endTimes.size();
+    }
+
+    public void clear() {
+        endTimes.clear();
+        ordered.clear();
+    }
+
+    /**
+     * 移除已过期的条目（结束时间最早的条目在最前面）
+     */
+    private void _expireBefore(long currentTime) {
+        while (true) {
+            Iterator<Entry> iterator = ordered.iterator();
+            if (!iterator.hasNext()) {
+                return;
+            }
+            Entry first = iterator.next();
+            if (first.endTime() > currentTime) {
+                return;
+            }
+            _expire(first.playerName(), first.endTime());
+        }
+    }
+
+    private void _expire(String playerName, long endTime) {
+        endTimes.computeIfPresent(playerName, (name, current) -> {
+            if (current != endTime) {
+                return current;
+            }
+            ordered.remove(new Entry(current, name));
+            return null;
+        });
+        // 映射已被其他线程修改时，集合中的旧条目也要移除，保证上面的循环能继续
+        ordered.remove(new Entry(endTime, playerName));
+    }
+}
@@ -1,31 +1,39 @@
 package com.login.ohc.data;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.util.Base64;
+import com.google.gson.annotations.JsonAdapter;
+import com.login.ohc.auth.PasswordCredential;
 import com.login.ohc.config.MessageConfig;
+import com.login.ohc.utils.Base64TypeAdapter;
 
 /**
  * 玩家登录数据类
- * 存储玩家的密码、登录状态、错误次数等信息
+ * 存储玩家的密码、错误次数、冷却和封停等需要持久化的信息
+ * 登录状态属于连接会话，见 {@link PlayerSession}
+ * 字段为 volatile，单个字段可以在任意线程读取；
+ * 涉及多个字段的修改和序列化都以对象本身为锁，保证其他线程看到的是完整的记录
+ * 盐值和哈希以原始字节保存（JSON 中为 Base64），数组设置后不再修改，可以直接共享给凭据
  */
 public class PlayerData {
-    private String playerName;
-    private String hashedPassword;
-    private String salt;
-    private boolean isLoggedIn;
-    private boolean hasPassword;
-    private int failedAttempts;
-    private long cooldownEndTime;
-    private long banEndTime;
-    private long lastLoginTime;
+    private volatile String playerName;
+    private volatile String playerUuid;
+    @JsonAdapter(Base64TypeAdapter.class)
+    private volatile byte[] hashedPassword;
+    @JsonAdapter(Base64TypeAdapter.class)
+    private volatile byte[] salt;
+    // 哈希算法及参数，旧版记录为 null（单次 SHA-256）
+    private volatile String hashAlgorithm;
+    private volatile boolean hasPassword;
+    private volatile int failedAttempts;
+    private volatile long cooldownEndTime;
+    private volatile long banEndTime;
+    private volatile long lastLoginTime;
     
     public PlayerData(String playerName) {
         this.playerName = playerName;
+        this.playerUuid = null;
         this.hashedPassword = null;
         this.salt = null;
-        this.isLoggedIn = false;
+        this.hashAlgorithm = null;
         this.hasPassword = false;
         this.failedAttempts = 0;
         this.cooldownEndTime = 0;
@@ -34,54 +42,56 @@ public class PlayerData {
     }
     
     /**
-     * 设置密码（首次设置）
+     * 设置密码（在调用线程计算哈希，服务器线程上应使用 {@link com.login.ohc.auth.AuthWorkerPool}）
      */
     public void setPassword(String password) {
-        this.salt = _generateSalt();
-        this.hashedPassword = _hashPassword(password, this.salt);
-        this.hasPassword = true;
+        setCredential(PasswordCredential.create(password));
     }
     
     /**
-     * 验证密码
+     * 验证密码（在调用线程计算哈希，服务器线程上应使用 {@link com.login.ohc.auth.AuthWorkerPool}）
      */
     public boolean verifyPassword(String password) {
+        PasswordCredential credential = getCredential();
+        return credential != null && credential.matches(password);
+    }
+    
+    /**
+     * 获取当前密码凭据，未设置密码时返回 null
+     */
+    public synchronized PasswordCredential getCredential() {
         if (!hasPassword || hashedPassword == null || salt == null) {
-            return false;
+            return null;
         }
-        String inputHash = _hashPassword(password, this.salt);
-        return hashedPassword.equals(inputHash);
+        return new PasswordCredential(hashAlgorithm, salt, hashedPassword);
     }
     
     /**
-     * 生成随机盐值
+     * 设置密码凭据（凭据已在验证线程中计算好）
      */
-    private String _generateSalt() {
-        SecureRandom random = new SecureRandom();
-        byte[] salt = new byte[16];
-        random.nextBytes(salt);
-        return Base64.getEncoder().encodeToString(salt);
+    public synchronized void setCredential(PasswordCredential credential) {
+        this.hashAlgorithm = credential.algorithm();
+        this.salt = credential.salt();
+        this.hashedPassword = credential.hash();
+        this.hasPassword = true;
     }
     
     /**
-     * 使用SHA-256和盐值对密码进行哈希
+     * 将凭据升级为按当前算法重新生成的凭据，凭据在验证期间已被修改（例如管理员重置密码）时不替换
+     * @return 是否已替换
      */
-    private String _hashPassword(String password, String salt) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(salt.getBytes());
-            byte[] hashedPassword = md.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hashedPassword);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256算法不可用", e);
+    public synchronized boolean upgradeCredential(PasswordCredential expected, PasswordCredential upgraded) {
+        if (!expected.equals(getCredential())) {
+            return false;
         }
+        setCredential(upgraded);
+        return true;
     }
     
     /**
      * 登录成功
      */
-    public void loginSuccess() {
-        this.isLoggedIn = true;
+    public synchronized void loginSuccess() {
         this.failedAttempts = 0;
         this.cooldownEndTime = 0;
         this.lastLoginTime = System.currentTimeMillis();
@@ -90,7 +100,7 @@ public class PlayerData {
     /**
      * 登录失败
      */
-    public void loginFailed() {
+    public synchronized void loginFailed() {
         this.failedAttempts++;
         
         MessageConfig config = MessageConfig.getInstance();
@@ -108,21 +118,14 @@ public class PlayerData {
         }
     }
     
-    /**
-     * 登出
-     */
-    public void logout() {
-        this.isLoggedIn = false;
-    }
-    
     /**
      * 清除密码（管理员功能）
      */
-    public void clearPassword() {
+    public synchronized void clearPassword() {
         this.hashedPassword = null;
         this.salt = null;
+        this.hashAlgorithm = null;
         this.hasPassword = false;
-        this.isLoggedIn = false;
         this.failedAttempts = 0;
         this.cooldownEndTime = 0;
         this.banEndTime = 0;
@@ -158,26 +161,45 @@ public class PlayerData {
         return (banEndTime - System.currentTimeMillis()) / (1000 * 60 * 60);
     }
     
+    /**
+     * 复制一份当前状态（在锁内读取全部字段）
+     */
+    public synchronized PlayerData copy() {
+        PlayerData copy = new PlayerData(playerName);
+        copy.playerUuid = playerUuid;
+        copy.hashedPassword = hashedPassword;
+        copy.salt = salt;
+        copy.hashAlgorithm = hashAlgorithm;
+        copy.hasPassword = hasPassword;
+        copy.failedAttempts = failedAttempts;
+        copy.cooldownEndTime = cooldownEndTime;
+        copy.banEndTime = banEndTime;
+        copy.lastLoginTime = lastLoginTime;
+        return copy;
+    }
+    
     // Getters
     public String getPlayerName() { return playerName; }
-    public boolean isLoggedIn() { return isLoggedIn; }
+    public String getPlayerUuid() { return playerUuid; }
     public boolean hasPassword() { return hasPassword; }
     public int getFailedAttempts() { return failedAttempts; }
     public long getLastLoginTime() { return lastLoginTime; }
     
     // Setters for serialization
     public void setPlayerName(String playerName) { this.playerName = playerName; }
-    public void setHashedPassword(String hashedPassword) { this.hashedPassword = hashedPassword; }
-    public void setSalt(String salt) { this.salt = salt; }
-    public void setLoggedIn(boolean loggedIn) { this.isLoggedIn = loggedIn; }
+    public void setPlayerUuid(String playerUuid) { this.playerUuid = playerUuid; }
+    public void setHashedPassword(byte[] hashedPassword) { this.hashedPassword = hashedPassword; }
+    public void setSalt(byte[] salt) { this.salt = salt; }
+    public void setHashAlgorithm(String hashAlgorithm) { this.hashAlgorithm = hashAlgorithm; }
     public void setHasPassword(boolean hasPassword) { this.hasPassword = hasPassword; }
     public void setFailedAttempts(int failedAttempts) { this.failedAttempts = failedAttempts; }
     public void setCooldownEndTime(long cooldownEndTime) { this.cooldownEndTime = cooldownEndTime; }
     public void setBanEndTime(long banEndTime) { this.banEndTime = banEndTime; }
     public void setLastLoginTime(long lastLoginTime) { this.lastLoginTime = lastLoginTime; }
     
-    public String getHashedPassword() { return hashedPassword; }
-    public String getSalt() { return salt; }
+    public byte[] getHashedPassword() { return hashedPassword; }
+    public byte[] getSalt() { return salt; }
+    public String getHashAlgorithm() { return hashAlgorithm; }
     public long getCooldownEndTime() { return cooldownEndTime; }
     public long getBanEndTime() { return banEndTime; }
 }
\ No newline at end of file
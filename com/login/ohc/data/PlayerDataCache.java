@@ -0,0 +1,181 @@
+package com.login.ohc.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 玩家记录缓存
+ * 在线玩家的记录常驻内存，离线玩家的记录按最近访问顺序保留，
+ * 离线记录超出容量时淘汰最久未访问的记录（记录在修改时已写入存储，淘汰不会丢失数据）
+ */
+public class PlayerDataCache {
+    // 按访问顺序排列，最久未访问的记录在最前面
+    private final LinkedHashMap<String, PlayerData> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // 在线玩家，不会被淘汰
+    private final Set<String> pinned = new HashSet<>();
+    // 正在修改的记录（玩家名 -> 持有次数），持有期间不会被淘汰，并发修改总是拿到同一个对象
+    private final Map<String, Integer> retained = new HashMap<>();
+    private volatile int maxOfflineEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PlayerDataCache(int maxOfflineEntries) {
+        this.maxOfflineEntries = maxOfflineEntries;
+    }
+
+    /**
+     * 获取缓存的记录，未缓存时返回 null
+     */
+    public synchronized PlayerData get(String playerName) {
+        PlayerData data = entries.get(playerName);
+        (data != null ? hits : misses).increment();
+        return data;
+    }
+
+    /**
+     * 获取缓存的记录，不计入命中统计（维护任务使用）
+     */
+    public synchronized PlayerData peek(String playerName) {
+        return entries.get(playerName);
+    }
+
+    /**
+     * 移除离线玩家的记录，玩家在线或有其他线程正在修改时不移除
+     * 调用方需自己持有一次 {@link #retain}
+     * @return 是否已移除（或本来就不在缓存中）
+     */
+    public synchronized boolean removeOffline(String playerName) {
+        if (pinned.contains(playerName) || retained.getOrDefault(playerName, 0) > 1) {
+            return false;
+        }
+        entries.remove(playerName);
+        return true;
+    }
+
+    /**
+     * 放入记录，已有记录时保留原记录并返回它
+     */
+    public synchronized PlayerData putIfAbsent(String playerName, PlayerData data) {
+        PlayerData existing = entries.putIfAbsent(playerName, data);
+        if (existing != null) {
+            return existing;
+        }
+        _evict();
+        return data;
+    }
+
+    /**
+     * 放入或替换记录
+     */
+    public synchronized void put(String playerName, PlayerData data) {
+        if (entries.put(playerName, data) == null) {
+            _evict();
+        }
+    }
+
+    /**
+     * 标记玩家在线，其记录不会被淘汰
+     */
+    public synchronized void pin(String playerName) {
+        pinned.add(playerName);
+    }
+
+    /**
+     * 玩家离线，其记录保留为最近访问的离线记录
+     */
+    public synchronized void unpin(String playerName) {
+        if (pinned.remove(playerName)) {
+            _evict();
+        }
+    }
+
+    public synchronized boolean isPinned(String playerName) {
+        return pinned.contains(playerName);
+    }
+
+    /**
+     * 开始修改记录，在 {@link #release} 之前该玩家的记录不会被淘汰
+     */
+    public synchronized void retain(String playerName) {
+        retained.merge(playerName, 1, Integer::sum);
+    }
+
+    /**
+     * 结束修改记录
+     */
+    public synchronized void release(String playerName) {
+        if (retained.computeIfPresent(playerName, (name, count) -> count > 1 ? count - 1 : null) == null) {
+            _evict();
+        }
+    }
+
+    /**
+     * 修改离线记录容量
+     */
+    public synchronized void setMaxOfflineEntries(int maxOfflineEntries) {
+        this.maxOfflineEntries = maxOfflineEntries;
+        _evict();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        pinned.clear();
+        retained.clear();
+    }
+
+    /**
+     * 获取当前缓存记录的副本（不影响访问顺序）
+     */
+    public synchronized List<PlayerData> values() {
+        return new ArrayList<>(entries.values());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getPinnedCount() {
+        return pinned.size();
+    }
+
+    public int getMaxOfflineEntries() {
+        return maxOfflineEntries;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 从最久未访问的记录开始淘汰离线记录，直到不超过容量（跳过正在修改的记录）
+     */
+    private void _evict() {
+        int excess = entries.size() - pinned.size() - maxOfflineEntries;
+        Iterator<Map.Entry<String, PlayerData>> iterator = entries.entrySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            String playerName = iterator.next().getKey();
+            if (!pinned.contains(playerName) && !retained.containsKey(playerName)) {
+                iterator.remove();
+                evictions.increment();
+                excess--;
+            }
+        }
+    }
+}
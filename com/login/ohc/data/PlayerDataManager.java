@@ -1,60 +1,176 @@
 package com.login.ohc.data;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.login.ohc.Ohc_Login;
+import com.login.ohc.config.MessageConfig;
+import com.login.ohc.data.storage.BackupManager;
+import com.login.ohc.data.storage.IndexedPlayerDataStorage;
+import com.login.ohc.data.storage.JsonPlayerDataStorage;
+import com.login.ohc.data.storage.PlayerDataStorage;
+import com.login.ohc.data.storage.SqlPlayerDataStorage;
+import com.login.ohc.data.storage.StorageMigration;
+import com.login.ohc.data.storage.TieredPlayerDataStorage;
 import net.minecraft.class_3222;
 import net.minecraft.server.MinecraftServer;
-import java.io.*;
-import java.lang.reflect.Type;
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 玩家数据管理器
  * 负责管理所有玩家的登录数据，包括加载、保存和查询
+ * 玩家记录由 {@link PlayerDataStorage} 持久化，只在玩家加入或管理员命令需要时才载入内存，
+ * 载入的记录由 {@link PlayerDataCache} 缓存：在线玩家常驻，离线玩家按最近访问淘汰
+ * 可以从服务器线程、网络线程和后台线程同时访问，单条记录的修改以记录本身为锁
  */
 public class PlayerDataManager {
-    private static PlayerDataManager instance;
-    private final Map<String, PlayerData> playerDataMap;
-    private final Gson gson;
-    private Path dataFile;
+    // 每个游戏刻维护过期状态的时间预算和记录数上限
+    private static final long SWEEP_BUDGET_NANOS = 1_000_000;
+    private static final int SWEEP_BATCH_LIMIT = 64;
+    
+    // 已载入内存的玩家记录（在线玩家和最近被查询的玩家）
+    private final PlayerDataCache cache;
+    // 仍在封停期内的玩家（握手阶段和管理员查询）
+    private final LockoutIndex banIndex = new LockoutIndex();
+    // 仍在冷却期内的玩家（管理员查询）
+    private final LockoutIndex cooldownIndex = new LockoutIndex();
+    // 需要清除过期冷却/封停或检查空记录的玩家，按到期时间排序
+    private final ExpiryIndex expiryIndex = new ExpiryIndex();
+    private long sweptLockouts;
+    private long purgedRecords;
+    private volatile Path worldDir;
+    private volatile PlayerDataStorage storage;
+    private volatile BackupManager backupManager;
+    // 存储后端打开失败（例如缺少JDBC驱动或地址错误）
+    private volatile boolean storageFailed;
     
     private PlayerDataManager() {
-        this.playerDataMap = new HashMap<>();
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.cache = new PlayerDataCache(1000);
     }
     
     public static PlayerDataManager getInstance() {
-        if (instance == null) {
-            instance = new PlayerDataManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
+    }
+    
+    private static class Holder {
+        private static final PlayerDataManager INSTANCE = new PlayerDataManager();
     }
     
     /**
      * 初始化数据管理器
      */
     public void initialize(MinecraftServer server) {
+        initialize(server.method_27050(net.minecraft.class_5218.field_24188), MessageConfig.getInstance().getStorageBackend());
+    }
+    
+    /**
+     * 使用指定的数据目录和存储后端初始化（tools 中的压力测试不启动服务器，直接调用）
+     */
+    public void initialize(Path worldDir, String backend) {
         // 设置数据文件路径
-        Path worldDir = server.method_27050(net.minecraft.class_5218.field_24188);
-        this.dataFile = worldDir.resolve("ohc_login_data.json");
+        this.worldDir = worldDir;
+        this.storageFailed = false;
+        PlayerDataStorage primary = createStorage(backend);
+        // 启用归档时，长期未登录的玩家记录移入压缩归档，热存储只保留活跃玩家
+        this.storage = MessageConfig.getInstance().getArchiveAfterDays() > 0
+                ? new TieredPlayerDataStorage(primary, worldDir) : primary;
+        this.backupManager = new BackupManager(worldDir, storage, MessageConfig.getInstance().isStorageFsyncEnabled());
+        cache.setMaxOfflineEntries(MessageConfig.getInstance().getPlayerCacheSize());
+        
+        try {
+            storage.open();
+            
+            // 首次使用索引存储时自动导入原有的 JSON 数据
+            if (storage.size() == 0 && !JsonPlayerDataStorage.NAME.equals(storage.getName())
+                    && JsonPlayerDataStorage.exists(worldDir)) {
+                PlayerDataStorage legacy = createStorage(JsonPlayerDataStorage.NAME);
+                legacy.open();
+                try {
+                    StorageMigration.migrate(legacy, storage);
+                } finally {
+                    legacy.close();
+                }
+            }
+            
+            _rebuildIndexes();
+        } catch (IOException e) {
+            // 存储不可用时不能把已注册玩家当作新玩家处理，保持失败状态并在握手阶段拒绝所有玩家
+            Ohc_Login.LOGGER.error("Failed to open {} player data storage, players will be refused until it is fixed",
+                    storage.getName(), e);
+            _closeQuietly(storage);
+            this.storage = null;
+            this.backupManager = null;
+            this.storageFailed = true;
+            return;
+        }
         
-        // 加载现有数据
-        _loadData();
+        Ohc_Login.LOGGER.info("PlayerDataManager initialized with {} storage ({} players)", storage.getName(), storage.size());
         
-        Ohc_Login.LOGGER.info("PlayerDataManager initialized with {} players", playerDataMap.size());
+        // 启动时在后台归档一次长期未登录的玩家
+        if (storage instanceof TieredPlayerDataStorage) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    archiveIdlePlayers();
+                } catch (IOException e) {
+                    Ohc_Login.LOGGER.error("Failed to archive idle player data", e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 将超过设定天数未登录的离线玩家记录移入归档，未启用归档时返回 null
+     */
+    public TieredPlayerDataStorage.ArchiveResult archiveIdlePlayers() throws IOException {
+        if (!(storage instanceof TieredPlayerDataStorage tiered)) {
+            return null;
+        }
+        long cutoffTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(MessageConfig.getInstance().getArchiveAfterDays());
+        return tiered.archiveIdle(cutoffTime, cache::isPinned);
+    }
+    
+    /**
+     * 创建指定类型的存储后端（未打开）
+     */
+    public PlayerDataStorage createStorage(String backend) {
+        MessageConfig config = MessageConfig.getInstance();
+        if (IndexedPlayerDataStorage.NAME.equals(backend)) {
+            return new IndexedPlayerDataStorage(worldDir, config.getJournalFlushIntervalMillis(), config.isStorageFsyncEnabled());
+        }
+        if (SqlPlayerDataStorage.NAME.equals(backend)) {
+            return new SqlPlayerDataStorage(worldDir, config.getSqlJdbcUrl(), config.getJournalFlushIntervalMillis());
+        }
+        if (!JsonPlayerDataStorage.NAME.equals(backend)) {
+            Ohc_Login.LOGGER.warn("Unknown storage backend '{}', falling back to json", backend);
+        }
+        return new JsonPlayerDataStorage(worldDir, config.getJournalFlushIntervalMillis(),
+                config.getJournalCompactionThreshold(), config.isStorageFsyncEnabled(), config.isJsonGzipEnabled());
     }
     
     /**
-     * 获取玩家数据
+     * 获取玩家数据（未载入时从存储中读取）
      */
     public PlayerData getPlayerData(String playerName) {
-        return playerDataMap.computeIfAbsent(playerName, PlayerData::new);
+        // 不存在的记录只为在线玩家缓存，其他名字的查询不会在内存中留下记录
+        PlayerData playerData = _getOrLoad(playerName, cache.isPinned(playerName));
+        return playerData != null ? playerData : new PlayerData(playerName);
+    }
+    
+    /**
+     * 查找玩家数据，不存在时返回 null（不会创建新记录）
+     */
+    public PlayerData findPlayerData(String playerName) {
+        return _getOrLoad(playerName, false);
+    }
+    
+    /**
+     * 玩家加入时载入其数据，在线期间不会被淘汰
+     */
+    public PlayerData loadOnlinePlayer(String playerName) {
+        cache.pin(playerName);
+        return getPlayerData(playerName);
     }
     
     /**
@@ -65,96 +181,234 @@ public class PlayerDataManager {
     }
     
     /**
-     * 保存玩家数据
+     * 保存玩家数据（写入存储，由后台线程批量落盘）
      */
     public void savePlayerData(PlayerData playerData) {
-        playerDataMap.put(playerData.getPlayerName(), playerData);
-        _saveData();
+        cache.put(playerData.getPlayerName(), playerData);
+        _store(playerData);
     }
     
     /**
-     * 移除玩家数据（玩家离开时调用）
+     * 写入存储并更新封停索引和过期索引（不放入缓存）
      */
-    public void removePlayerData(String playerName) {
-        PlayerData data = playerDataMap.get(playerName);
-        if (data != null) {
-            data.logout();
-            _saveData();
+    private void _store(PlayerData playerData) {
+        PlayerDataStorage storage = this.storage;
+        if (storage != null) {
+            // 持有记录锁写入存储，同一玩家的并发保存按顺序进入写入队列，且不会序列化修改到一半的记录
+            synchronized (playerData) {
+                storage.save(playerData);
+                banIndex.update(playerData.getPlayerName(), playerData.getBanEndTime());
+                cooldownIndex.update(playerData.getPlayerName(), playerData.getCooldownEndTime());
+                long expiry = _nextExpiry(playerData);
+                if (expiry > 0) {
+                    expiryIndex.schedule(playerData.getPlayerName(), expiry);
+                }
+            }
+            backupManager.markChanged(playerData.getPlayerName());
         }
     }
     
     /**
-     * 检查玩家是否已登录
+     * 原子地修改并保存玩家数据（修改期间持有记录锁，其他线程不会看到只改了一半的记录）
      */
-    public boolean isPlayerLoggedIn(String playerName) {
-        PlayerData data = playerDataMap.get(playerName);
-        return data != null && data.isLoggedIn();
+    public PlayerData updatePlayerData(String playerName, Consumer<PlayerData> update) {
+        // 修改期间记录不会被淘汰，其他线程不会从存储中读出另一个旧对象并覆盖这次修改
+        cache.retain(playerName);
+        try {
+            PlayerData playerData = _getOrLoad(playerName, true);
+            synchronized (playerData) {
+                update.accept(playerData);
+                _store(playerData);
+            }
+            return playerData;
+        } finally {
+            cache.release(playerName);
+        }
     }
     
     /**
-     * 检查玩家是否已登录（通过ServerPlayerEntity）
+     * 获取缓存中的记录，未缓存时从存储中读取并放入缓存，不存在时 create 为 true 则新建
+     * 读取期间持有 {@link PlayerDataCache#retain}：其他线程正在修改的记录不会被淘汰，
+     * 因此放入缓存的不会是已被覆盖的旧记录，并发调用总是得到同一个对象
      */
-    public boolean isPlayerLoggedIn(class_3222 player) {
-        return isPlayerLoggedIn(player.method_7334().getName());
+    private PlayerData _getOrLoad(String playerName, boolean create) {
+        PlayerData cached = cache.get(playerName);
+        if (cached != null) {
+            return cached;
+        }
+        
+        cache.retain(playerName);
+        try {
+            PlayerData stored = _load(playerName);
+            if (stored != null) {
+                return cache.putIfAbsent(playerName, stored);
+            }
+            return create ? cache.putIfAbsent(playerName, new PlayerData(playerName)) : cache.peek(playerName);
+        } finally {
+            cache.release(playerName);
+        }
     }
     
     /**
-     * 获取所有在线但未登录的玩家数量
+     * 玩家离开时取消常驻，记录之后可被淘汰（数据已在修改时写入存储）
      */
-    public int getUnloggedPlayerCount() {
-        return (int) playerDataMap.values().stream()
-                .filter(data -> !data.isLoggedIn())
-                .count();
+    public void unloadPlayerData(String playerName) {
+        cache.unpin(playerName);
+        // 没有设置密码就离开的玩家，其空记录交给维护任务清除
+        PlayerData playerData = cache.peek(playerName);
+        if (playerData != null && !playerData.hasPassword()) {
+            expiryIndex.schedule(playerName, System.currentTimeMillis());
+        }
     }
     
     /**
-     * 从文件加载数据
+     * 获取当前使用的存储后端
      */
-    private void _loadData() {
-        if (!Files.exists(dataFile)) {
-            Ohc_Login.LOGGER.info("No existing player data file found, starting fresh");
-            return;
+    public PlayerDataStorage getStorage() {
+        return storage;
+    }
+    
+    /**
+     * 存储后端是否可用（打开失败时为 false，此时不能判断玩家是否已注册）
+     */
+    public boolean isStorageAvailable() {
+        return !storageFailed && storage != null;
+    }
+    
+    /**
+     * 获取封停索引
+     */
+    public LockoutIndex getBanIndex() {
+        return banIndex;
+    }
+    
+    /**
+     * 获取冷却索引
+     */
+    public LockoutIndex getCooldownIndex() {
+        return cooldownIndex;
+    }
+    
+    /**
+     * 解除玩家的封停和冷却，并清零失败次数
+     * @return 玩家记录不存在或未被封停、冷却时返回 false
+     */
+    public boolean liftLockout(String playerName) {
+        PlayerData playerData = findPlayerData(playerName);
+        if (playerData == null || (!playerData.isBanned() && !playerData.isInCooldown())) {
+            return false;
         }
-        
-        try (Reader reader = Files.newBufferedReader(dataFile)) {
-            Type type = new TypeToken<Map<String, PlayerData>>(){}.getType();
-            Map<String, PlayerData> loadedData = gson.fromJson(reader, type);
-            
-            if (loadedData != null) {
-                playerDataMap.clear();
-                playerDataMap.putAll(loadedData);
-                
-                // 重置所有玩家的登录状态（服务器重启后需要重新登录）
-                playerDataMap.values().forEach(PlayerData::logout);
-                
-                Ohc_Login.LOGGER.info("Loaded {} player data entries", playerDataMap.size());
+        updatePlayerData(playerName, data -> {
+            data.setBanEndTime(0);
+            data.setCooldownEndTime(0);
+            data.setFailedAttempts(0);
+        });
+        return true;
+    }
+    
+    /**
+     * 获取备份管理器
+     */
+    public BackupManager getBackupManager() {
+        return backupManager;
+    }
+    
+    /**
+     * 获取已载入内存的玩家记录数
+     */
+    public int getLoadedPlayerCount() {
+        return cache.size();
+    }
+    
+    /**
+     * 获取玩家记录缓存（用于查看命中统计）
+     */
+    public PlayerDataCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * 检查玩家是否已登录（通过ServerPlayerEntity）
+     */
+    public boolean isPlayerLoggedIn(class_3222 player) {
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
+    }
+    
+    /**
+     * 从存储中读取玩家数据，不存在时返回 null
+     */
+    private PlayerData _load(String playerName) {
+        PlayerDataStorage storage = this.storage;
+        if (storage != null) {
+            try {
+                return storage.load(playerName);
+            } catch (IOException e) {
+                Ohc_Login.LOGGER.error("Failed to load player data for {}", playerName, e);
             }
-        } catch (IOException e) {
-            Ohc_Login.LOGGER.error("Failed to load player data", e);
+        }
+        return null;
+    }
+    
+    private static void _closeQuietly(PlayerDataStorage storage) {
+        try {
+            storage.close();
+        } catch (RuntimeException e) {
+            Ohc_Login.LOGGER.error("Failed to close {} player data storage", storage.getName(), e);
         }
     }
     
     /**
-     * 保存数据到文件
+     * 遍历存储，重建封停索引和过期索引
      */
-    private void _saveData() {
-        try {
-            // 确保目录存在
-            Files.createDirectories(dataFile.getParent());
-            
-            try (Writer writer = Files.newBufferedWriter(dataFile)) {
-                gson.toJson(playerDataMap, writer);
+    private void _rebuildIndexes() throws IOException {
+        banIndex.clear();
+        cooldownIndex.clear();
+        expiryIndex.clear();
+        long currentTime = System.currentTimeMillis();
+        storage.forEach(data -> {
+            if (data.getBanEndTime() > currentTime) {
+                banIndex.update(data.getPlayerName(), data.getBanEndTime());
             }
-        } catch (IOException e) {
-            Ohc_Login.LOGGER.error("Failed to save player data", e);
+            if (data.getCooldownEndTime() > currentTime) {
+                cooldownIndex.update(data.getPlayerName(), data.getCooldownEndTime());
+            }
+            long expiry = _nextExpiry(data);
+            if (expiry > 0) {
+                expiryIndex.schedule(data.getPlayerName(), expiry);
+            }
+        });
+        if (banIndex.size() > 0 || cooldownIndex.size() > 0 || expiryIndex.size() > 0) {
+            Ohc_Login.LOGGER.info("Loaded {} active bans, {} active cooldowns, {} records pending expiry",
+                    banIndex.size(), cooldownIndex.size(), expiryIndex.size());
         }
     }
     
+    /**
+     * 记录下一次需要维护的时间：最早的冷却或封停结束时间，
+     * 已过期未清除的状态和未设置密码的空记录为 1（立即处理），不需要维护时返回 0
+     */
+    private static long _nextExpiry(PlayerData data) {
+        long cooldownEndTime = data.getCooldownEndTime();
+        long banEndTime = data.getBanEndTime();
+        if (cooldownEndTime == 0 && banEndTime == 0) {
+            return data.hasPassword() ? 0 : 1;
+        }
+        if (cooldownEndTime == 0) {
+            return banEndTime;
+        }
+        if (banEndTime == 0) {
+            return cooldownEndTime;
+        }
+        return Math.min(cooldownEndTime, banEndTime);
+    }
+    
     /**
      * 保存所有数据
      */
     public void saveAllData() {
-        _saveData();
+        if (storage != null) {
+            storage.flush();
+        }
         Ohc_Login.LOGGER.info("All player data saved");
     }
     
@@ -162,20 +416,108 @@ public class PlayerDataManager {
      * 服务器关闭时保存所有数据
      */
     public void shutdown() {
-        // 登出所有玩家
-        playerDataMap.values().forEach(PlayerData::logout);
-        _saveData();
+        // 登出所有玩家（会话只存在于内存中，无需写盘）
+        PlayerSessionManager.getInstance().clear();
+        if (storage != null) {
+            storage.close();
+        }
+        cache.clear();
+        banIndex.clear();
+        cooldownIndex.clear();
+        expiryIndex.clear();
         Ohc_Login.LOGGER.info("PlayerDataManager shutdown complete");
     }
     
     /**
-     * 清理过期的冷却和封停状态
+     * 清理过期的冷却和封停状态，删除未设置密码的离线空记录
+     * 每个游戏刻调用一次，只处理过期索引中已到期的玩家，并受时间预算和记录数限制
      */
     public void cleanupExpiredStates() {
+        if (storage == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + SWEEP_BUDGET_NANOS;
         long currentTime = System.currentTimeMillis();
-        playerDataMap.values().forEach(data -> {
-            // 这里可以添加清理逻辑，但由于我们在检查时已经处理了过期状态，
-            // 所以这个方法主要用于定期维护
-        });
+        for (int i = 0; i < SWEEP_BATCH_LIMIT && System.nanoTime() < deadline; i++) {
+            String playerName = expiryIndex.pollDue(currentTime);
+            if (playerName == null) {
+                return;
+            }
+            _sweep(playerName, currentTime);
+        }
+    }
+    
+    /**
+     * 维护单个玩家的记录
+     * 与 {@link #updatePlayerData} 一样经由缓存读取并持有 retain 和记录锁，
+     * 不会在其他线程载入同一玩家时修改另一个对象并覆盖对方的保存
+     */
+    private void _sweep(String playerName, long currentTime) {
+        cache.retain(playerName);
+        try {
+            PlayerData playerData = _getOrLoad(playerName, false);
+            if (playerData == null) {
+                return;
+            }
+            
+            synchronized (playerData) {
+                boolean changed = false;
+                if (playerData.getCooldownEndTime() != 0 && playerData.getCooldownEndTime() <= currentTime) {
+                    playerData.setCooldownEndTime(0);
+                    changed = true;
+                }
+                if (playerData.getBanEndTime() != 0 && playerData.getBanEndTime() <= currentTime) {
+                    playerData.setBanEndTime(0);
+                    changed = true;
+                }
+                if (changed) {
+                    sweptLockouts++;
+                }
+                
+                // 从未设置密码、也没有失败记录的空记录不需要保存
+                if (!playerData.hasPassword() && playerData.getFailedAttempts() == 0
+                        && playerData.getCooldownEndTime() == 0 && playerData.getBanEndTime() == 0) {
+                    if (cache.removeOffline(playerName)) {
+                        storage.delete(playerName);
+                        banIndex.update(playerName, 0);
+                        cooldownIndex.update(playerName, 0);
+                        purgedRecords++;
+                    }
+                    return;
+                }
+                
+                if (changed) {
+                    _store(playerData);
+                } else {
+                    long expiry = _nextExpiry(playerData);
+                    if (expiry > currentTime) {
+                        expiryIndex.schedule(playerName, expiry);
+                    }
+                }
+            }
+        } finally {
+            cache.release(playerName);
+        }
+    }
+    
+    /**
+     * 获取等待维护的玩家数
+     */
+    public int getPendingExpiryCount() {
+        return expiryIndex.size();
+    }
+    
+    /**
+     * 获取已清除的过期冷却/封停记录数
+     */
+    public long getSweptLockoutCount() {
+        return sweptLockouts;
+    }
+    
+    /**
+     * 获取已删除的空记录数
+     */
+    public long getPurgedRecordCount() {
+        return purgedRecords;
     }
 }
\ No newline at end of file
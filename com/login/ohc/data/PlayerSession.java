@@ -0,0 +1,41 @@
+package com.login.ohc.data;
+
+import java.util.UUID;
+
+/**
+ * 玩家会话
+ * 记录一次连接期间的登录状态，只存在于内存中，不会写入磁盘
+ */
+public class PlayerSession {
+    private final String playerName;
+    private final UUID playerId;
+    private final long joinTime;
+    private volatile boolean isLoggedIn;
+    
+    public PlayerSession(String playerName, UUID playerId) {
+        this.playerName = playerName;
+        this.playerId = playerId;
+        this.joinTime = System.currentTimeMillis();
+        this.isLoggedIn = false;
+    }
+    
+    /**
+     * 登录成功
+     */
+    public void loginSuccess() {
+        this.isLoggedIn = true;
+    }
+    
+    /**
+     * 登出
+     */
+    public void logout() {
+        this.isLoggedIn = false;
+    }
+    
+    // Getters
+    public String getPlayerName() { return playerName; }
+    public UUID getPlayerId() { return playerId; }
+    public long getJoinTime() { return joinTime; }
+    public boolean isLoggedIn() { return isLoggedIn; }
+}
@@ -0,0 +1,126 @@
+package com.login.ohc.data;
+
+import com.login.ohc.restrictions.RestrictedPlayerRegistry;
+import net.minecraft.class_3222;
+import net.minecraft.class_3244;
+import net.minecraft.server.MinecraftServer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 玩家会话管理器
+ * 以玩家当前连接为键保存会话状态，加入和离开服务器时不产生任何磁盘读写
+ * 登录状态同时写入玩家实体（{@link AuthenticatedPlayer}），频繁的限制检查只读取实体上的字段；
+ * 未登录的玩家登记在 {@link RestrictedPlayerRegistry} 中，由其每刻检查移动
+ */
+public class PlayerSessionManager {
+    private final Map<class_3244, PlayerSession> sessions;
+    
+    private PlayerSessionManager() {
+        this.sessions = new ConcurrentHashMap<>();
+    }
+    
+    public static PlayerSessionManager getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static class Holder {
+        private static final PlayerSessionManager INSTANCE = new PlayerSessionManager();
+    }
+    
+    /**
+     * 按 UUID 取玩家当前的实体，不在线时返回 null
+     * 重生和切换维度会创建新的玩家实体，延迟执行的任务不能持有加入时的实体
+     */
+    public static class_3222 getOnlinePlayer(MinecraftServer server, UUID playerUuid) {
+        return server.method_3760().method_14602(playerUuid);
+    }
+    
+    /**
+     * 玩家加入时创建会话
+     */
+    public PlayerSession startSession(class_3222 player) {
+        PlayerSession session = new PlayerSession(player.method_7334().getName(), player.method_5667());
+        sessions.put(player.field_13987, session);
+        _setAuthenticated(player, false);
+        return session;
+    }
+    
+    /**
+     * 玩家离开时结束会话
+     */
+    public void endSession(class_3222 player) {
+        sessions.remove(player.field_13987);
+        // 实体上的状态保持不变：离开事件早于玩家从世界中移除，区块加载票按加入时的状态释放
+        RestrictedPlayerRegistry.getInstance().remove(player);
+    }
+    
+    /**
+     * 获取玩家当前连接的会话
+     */
+    public PlayerSession getSession(class_3222 player) {
+        class_3244 connection = player.field_13987;
+        return connection != null ? sessions.get(connection) : null;
+    }
+    
+    /**
+     * 检查玩家是否已登录（只读取玩家实体上的字段）
+     */
+    public boolean isLoggedIn(class_3222 player) {
+        return ((AuthenticatedPlayer) player).ohc_login$isAuthenticated();
+    }
+    
+    /**
+     * 标记玩家已登录
+     */
+    public void markLoggedIn(class_3222 player) {
+        PlayerSession session = getSession(player);
+        if (session == null) {
+            session = startSession(player);
+        }
+        session.loginSuccess();
+        _setAuthenticated(player, true);
+    }
+    
+    /**
+     * 按玩家名登出（管理员重置密码时使用）
+     */
+    public void logout(String playerName) {
+        sessions.forEach((connection, session) -> {
+            if (session.getPlayerName().equals(playerName)) {
+                session.logout();
+                _setAuthenticated(connection.method_32311(), false);
+            }
+        });
+    }
+    
+    /**
+     * 获取所有在线但未登录的玩家数量
+     */
+    public int getUnloggedPlayerCount() {
+        return (int) sessions.values().stream()
+                .filter(session -> !session.isLoggedIn())
+                .count();
+    }
+    
+    /**
+     * 清空所有会话（服务器关闭时调用）
+     */
+    public void clear() {
+        sessions.clear();
+        RestrictedPlayerRegistry.getInstance().clear();
+    }
+    
+    /**
+     * 更新玩家实体上的登录状态，未登录的玩家登记到限制表中
+     */
+    private static void _setAuthenticated(class_3222 player, boolean authenticated) {
+        ((AuthenticatedPlayer) player).ohc_login$setAuthenticated(authenticated);
+        if (authenticated) {
+            RestrictedPlayerRegistry.getInstance().remove(player);
+        } else {
+            RestrictedPlayerRegistry.getInstance().add(player);
+        }
+    }
+}
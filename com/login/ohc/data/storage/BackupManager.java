@@ -0,0 +1,217 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import com.login.ohc.utils.AtomicFiles;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 玩家数据在线备份
+ * 全量备份扫描整个存储，增量备份只写入上次备份后被修改过的记录；
+ * 一个全量备份和其后的增量备份组成一个备份集，按顺序回放即可恢复到最后一次备份时的状态
+ * 备份只读取存储，可以在后台线程执行，不需要暂停服务器
+ */
+public class BackupManager {
+    public static final int KIND_FULL = 0;
+    public static final int KIND_INCREMENTAL = 1;
+
+    private static final String FULL_SUFFIX = "-full.ohcb";
+    private static final String INCREMENTAL_SUFFIX = "-incr.ohcb";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path backupDir;
+    private final PlayerDataStorage storage;
+    private final boolean fsync;
+
+    // 上次备份后被修改过的玩家
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean();
+    // 修改记录只在内存中，重启后的第一次备份必须是全量备份
+    private volatile boolean hasBaseline;
+
+    /**
+     * 备份结果，没有变更时 file 为 null
+     */
+    public record Result(Path file, boolean full, int records) {
+    }
+
+    public BackupManager(Path worldDir, PlayerDataStorage storage, boolean fsync) {
+        this.backupDir = worldDir.resolve("ohc_login_backups");
+        this.storage = storage;
+        this.fsync = fsync;
+    }
+
+    /**
+     * 记录玩家数据已修改
+     */
+    public void markChanged(String playerName) {
+        changed.add(playerName);
+    }
+
+    /**
+     * 获取等待下次增量备份的记录数
+     */
+    public int getChangedCount() {
+        return changed.size();
+    }
+
+    public Path getBackupDir() {
+        return backupDir;
+    }
+
+    /**
+     * 执行一次备份（会读取存储，应在后台线程调用）
+     * @param forceFull 是否强制全量备份
+     * @param maxIncrementals 每个备份集中增量备份的最大数量
+     * @param keepSets 保留的备份集数量
+     */
+    public Result backup(boolean forceFull, int maxIncrementals, int keepSets) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another backup is already running");
+        }
+
+        // 先取走修改记录再读取存储，备份期间的修改会进入下一次增量备份
+        List<String> names = new ArrayList<>(changed);
+        names.forEach(changed::remove);
+        try {
+            List<Path> currentSet = _currentSet();
+            boolean full = forceFull || !hasBaseline || currentSet.isEmpty() || currentSet.size() > maxIncrementals;
+            if (!full && names.isEmpty()) {
+                return new Result(null, false, 0);
+            }
+
+            Path file = backupDir.resolve(LocalDateTime.now().format(FILE_TIME) + (full ? FULL_SUFFIX : INCREMENTAL_SUFFIX));
+            int[] count = new int[1];
+            AtomicFiles.write(file, out -> {
+                PlayerDataCodec.RecordWriter writer = new PlayerDataCodec.RecordWriter(
+                        out, full ? KIND_FULL : KIND_INCREMENTAL, System.currentTimeMillis());
+                if (full) {
+                    _writeAll(writer, count);
+                } else {
+                    _writeChanged(writer, names, count);
+                }
+                writer.finish();
+            }, fsync);
+
+            if (full) {
+                hasBaseline = true;
+                _rotate(keepSets);
+            }
+            Ohc_Login.LOGGER.info("Wrote {} backup {} with {} player records", full ? "full" : "incremental",
+                    file.getFileName(), count[0]);
+            return new Result(file, full, count[0]);
+        } catch (IOException | RuntimeException e) {
+            changed.addAll(names);
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 校验最新的备份集，返回其中的记录总数
+     */
+    public int verifyLatestSet() throws IOException {
+        List<Path> currentSet = _currentSet();
+        if (currentSet.isEmpty()) {
+            throw new IOException("No backup found in " + backupDir);
+        }
+
+        int records = 0;
+        for (Path file : currentSet) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                PlayerDataCodec.RecordReader reader = new PlayerDataCodec.RecordReader(in);
+                byte[] record;
+                while ((record = reader.next()) != null) {
+                    PlayerDataCodec.decode(record);
+                    records++;
+                }
+            } catch (IOException e) {
+                throw new IOException("Backup " + file.getFileName() + " is damaged: " + e.getMessage(), e);
+            }
+        }
+        return records;
+    }
+
+    private void _writeAll(PlayerDataCodec.RecordWriter writer, int[] count) throws IOException {
+        try {
+            storage.forEach(data -> {
+                try {
+                    writer.write(PlayerDataCodec.encode(data));
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof IOException ioError) {
+                throw ioError;
+            }
+            throw e;
+        }
+    }
+
+    private void _writeChanged(PlayerDataCodec.RecordWriter writer, List<String> names, int[] count) throws IOException {
+        for (String name : names) {
+            PlayerData data = storage.load(name);
+            writer.write(data != null ? PlayerDataCodec.encode(data) : PlayerDataCodec.encodeTombstone(name));
+            count[0]++;
+        }
+    }
+
+    /**
+     * 列出所有备份文件（文件名以时间开头，按名称排序即为时间顺序）
+     */
+    private List<Path> _listBackups() throws IOException {
+        if (!Files.isDirectory(backupDir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(backupDir)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.endsWith(FULL_SUFFIX) || name.endsWith(INCREMENTAL_SUFFIX);
+            }).sorted().collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * 获取最新的备份集（最后一个全量备份及其后的增量备份）
+     */
+    private List<Path> _currentSet() throws IOException {
+        List<Path> backups = _listBackups();
+        for (int i = backups.size() - 1; i >= 0; i--) {
+            if (backups.get(i).getFileName().toString().endsWith(FULL_SUFFIX)) {
+                return backups.subList(i, backups.size());
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * 删除超出保留数量的旧备份集
+     */
+    private void _rotate(int keepSets) throws IOException {
+        List<Path> backups = _listBackups();
+        int fullSeen = 0;
+        for (int i = backups.size() - 1; i >= 0; i--) {
+            if (fullSeen >= keepSets) {
+                Files.deleteIfExists(backups.get(i));
+            } else if (backups.get(i).getFileName().toString().endsWith(FULL_SUFFIX)) {
+                fullSeen++;
+            }
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.login.ohc.data.storage;
+
+import com.google.gson.Gson;
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import com.login.ohc.utils.AtomicFiles;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 索引文件存储后端
+ * 所有记录追加写入 ohc_login_data.db，内存中只保存玩家名到文件位置的索引，
+ * 玩家记录在需要时才从磁盘读取；废弃记录过多时在后台线程重写文件进行压缩
+ *
+ * 文件格式：[魔数][版本] 之后为若干条 [载荷长度][CRC32][载荷]，
+ * 载荷为 {@link PlayerDataCodec} 编码的二进制记录；版本 1 的文件载荷为 JSON，打开时自动转换
+ */
+public class IndexedPlayerDataStorage implements PlayerDataStorage {
+    public static final String NAME = "kv";
+
+    private static final int MAGIC = 0x4F48434B; // "OHCK"
+    private static final int FORMAT_VERSION = 2;
+    private static final int LEGACY_JSON_VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final byte LEGACY_TYPE_TOMBSTONE = 0;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private final Path dataFile;
+    private final long flushIntervalMillis;
+    private final boolean fsync;
+
+    // 玩家名 -> 最新记录在文件中的位置
+    private final Map<String, RecordLocation> index = new ConcurrentHashMap<>();
+    // 尚未写入文件的记录（已编码的载荷）
+    private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+    // 压缩时替换文件需要排除并发读取
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+
+    private FileChannel channel;
+    private ScheduledExecutorService writer;
+    private long fileSize;
+    private long liveBytes;
+
+    private record RecordLocation(long offset, int length) {}
+
+    public IndexedPlayerDataStorage(Path worldDir, long flushIntervalMillis, boolean fsync) {
+        this.dataFile = worldDir.resolve("ohc_login_data.db");
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dataFile.getParent());
+        boolean isNew = !Files.exists(dataFile);
+        channel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (isNew || channel.size() == 0) {
+            _writeFileHeader(channel);
+            fileSize = FILE_HEADER_SIZE;
+        } else {
+            try {
+                if (_readFileHeader() == LEGACY_JSON_VERSION) {
+                    _upgradeLegacyFile();
+                }
+                _buildIndex();
+            } catch (IOException e) {
+                channel.close();
+                channel = null;
+                index.clear();
+                liveBytes = 0;
+                throw e;
+            }
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OHC-Login-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::_groupCommit, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        Ohc_Login.LOGGER.info("Opened indexed player data storage with {} records ({} bytes)", index.size(), fileSize);
+    }
+
+    @Override
+    public PlayerData load(String playerName) throws IOException {
+        byte[] payload = pending.get(playerName);
+        if (payload == null) {
+            payload = _readPayload(playerName);
+            if (payload == null) {
+                return null;
+            }
+        }
+        return _decode(payload);
+    }
+
+    @Override
+    public void save(PlayerData playerData) {
+        pending.put(playerData.getPlayerName(), _encode(playerData.getPlayerName(), playerData));
+    }
+
+    @Override
+    public void delete(String playerName) {
+        pending.put(playerName, _encode(playerName, null));
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerData> consumer) throws IOException {
+        flush();
+        for (String playerName : new ArrayList<>(index.keySet())) {
+            PlayerData data = load(playerName);
+            if (data != null) {
+                consumer.accept(data);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            _writePending();
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to flush indexed player data storage", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            _writePending();
+            if (channel != null) {
+                channel.force(true);
+                channel.close();
+            }
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to close indexed player data storage", e);
+        }
+    }
+
+    /**
+     * 后台定时任务：批量写入变更，废弃数据过多时压缩文件
+     */
+    private synchronized void _groupCommit() {
+        try {
+            _writePending();
+            if (fileSize > MIN_COMPACTION_BYTES && fileSize - liveBytes > liveBytes) {
+                _compact();
+            }
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to commit indexed player data storage", e);
+        }
+    }
+
+    /**
+     * 将等待中的记录一次性追加到文件末尾并更新索引
+     */
+    private void _writePending() throws IOException {
+        if (pending.isEmpty() || channel == null) {
+            return;
+        }
+
+        Map<String, byte[]> batch = new HashMap<>(pending);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        Map<String, RecordLocation> locations = new HashMap<>();
+
+        for (Map.Entry<String, byte[]> entry : batch.entrySet()) {
+            byte[] payload = entry.getValue();
+            long offset = fileSize + bytes.size();
+            out.writeInt(payload.length);
+            out.writeInt(_checksum(payload, 0, payload.length));
+            out.write(payload);
+            locations.put(entry.getKey(), new RecordLocation(offset, RECORD_HEADER_SIZE + payload.length));
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long position = fileSize;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        fileSize = position;
+
+        // 先更新索引，再移除等待记录，保证读取方始终能看到最新数据
+        for (Map.Entry<String, byte[]> entry : batch.entrySet()) {
+            String playerName = entry.getKey();
+            RecordLocation location = locations.get(playerName);
+            _applyToIndex(playerName, _isTombstone(entry.getValue()) ? null : location);
+            pending.remove(playerName, entry.getValue());
+        }
+    }
+
+    /**
+     * 只保留存活记录重写数据文件
+     */
+    private void _compact() throws IOException {
+        Path tempFile = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        Map<String, RecordLocation> compacted = new HashMap<>();
+        long position = FILE_HEADER_SIZE;
+
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            _writeFileHeader(out);
+            for (Map.Entry<String, RecordLocation> entry : index.entrySet()) {
+                RecordLocation location = entry.getValue();
+                ByteBuffer record = ByteBuffer.allocate(location.length());
+                _readFully(record, location.offset());
+                record.flip();
+                while (record.hasRemaining()) {
+                    out.write(record, position + record.position());
+                }
+                compacted.put(entry.getKey(), new RecordLocation(position, location.length()));
+                position += location.length();
+            }
+            out.force(true);
+        }
+
+        fileLock.writeLock().lock();
+        try {
+            channel.close();
+            Files.move(tempFile, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (fsync) {
+                AtomicFiles.syncDirectory(dataFile.toAbsolutePath().getParent());
+            }
+            channel = FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.putAll(compacted);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+
+        Ohc_Login.LOGGER.info("Compacted player data storage from {} to {} bytes", fileSize, position);
+        fileSize = position;
+        liveBytes = position - FILE_HEADER_SIZE;
+    }
+
+    /**
+     * 启动时顺序扫描文件建立索引，只读取记录头和玩家名
+     * 只有末尾写入不完整的记录会被截断；中间记录损坏时拒绝打开，不修改文件
+     */
+    private void _buildIndex() throws IOException {
+        long size = channel.size();
+        long position = FILE_HEADER_SIZE;
+
+        while (position < size) {
+            byte[] payload = _readRecord(position, size);
+            if (payload == null) {
+                break;
+            }
+            String playerName = PlayerDataCodec.readName(payload);
+            boolean isTombstone = PlayerDataCodec.isTombstone(payload);
+            _applyToIndex(playerName, isTombstone ? null : new RecordLocation(position, RECORD_HEADER_SIZE + payload.length));
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+
+        if (position < size) {
+            Ohc_Login.LOGGER.warn("Truncating {} bytes of incomplete records from {}", size - position, dataFile);
+            channel.truncate(position);
+        }
+        fileSize = position;
+    }
+
+    /**
+     * 读取并校验 position 处的记录载荷
+     * 记录头或载荷超出文件末尾、长度无效或校验失败时，如果其后再没有有效记录，视为末尾写入中断，
+     * 返回 null 交给调用方截断；其后仍有有效记录说明文件中间已损坏，抛出异常拒绝打开以保留原文件
+     */
+    private byte[] _readRecord(long position, long size) throws IOException {
+        if (position + RECORD_HEADER_SIZE <= size) {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            _readFully(header, position);
+            header.flip();
+            byte[] payload = _readValidPayload(position, header.getInt(), header.getInt(), size);
+            if (payload != null) {
+                return payload;
+            }
+        }
+        if (_hasValidRecordAfter(position + 1, size)) {
+            throw new IOException("Corrupted record at offset " + position + " in " + dataFile);
+        }
+        return null;
+    }
+
+    /**
+     * 长度在文件范围内且校验通过时返回载荷，否则返回 null
+     */
+    private byte[] _readValidPayload(long position, int length, int checksum, long size) throws IOException {
+        if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        _readFully(payload, position + RECORD_HEADER_SIZE);
+        return _checksum(payload.array(), 0, length) == checksum ? payload.array() : null;
+    }
+
+    /**
+     * 从 from 开始逐字节查找能通过校验的记录，只在发现损坏记录时调用
+     * 按块读取文件，只有长度落在文件范围内的位置才需要读取载荷计算校验
+     */
+    private boolean _hasValidRecordAfter(long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        long base = from;
+        while (base + RECORD_HEADER_SIZE <= size) {
+            window.clear();
+            window.limit((int) Math.min(window.capacity(), size - base));
+            _readFully(window, base);
+            int last = window.limit() - RECORD_HEADER_SIZE;
+            for (int i = 0; i <= last; i++) {
+                if (_readValidPayload(base + i, window.getInt(i), window.getInt(i + 4), size) != null) {
+                    return true;
+                }
+            }
+            base += last + 1;
+        }
+        return false;
+    }
+
+    /**
+     * 更新索引并统计存活数据量
+     */
+    private void _applyToIndex(String playerName, RecordLocation location) {
+        RecordLocation previous = location != null ? index.put(playerName, location) : index.remove(playerName);
+        if (previous != null) {
+            liveBytes -= previous.length();
+        }
+        if (location != null) {
+            liveBytes += location.length();
+        }
+    }
+
+    /**
+     * 读取并校验玩家最新记录的载荷，不存在时返回 null
+     * 索引查询和读取在同一把读锁内完成，避免压缩替换文件后读到旧位置
+     */
+    private byte[] _readPayload(String playerName) throws IOException {
+        ByteBuffer record;
+        long offset;
+        fileLock.readLock().lock();
+        try {
+            RecordLocation location = index.get(playerName);
+            if (location == null) {
+                return null;
+            }
+            offset = location.offset();
+            record = ByteBuffer.allocate(location.length());
+            _readFully(record, offset);
+        } finally {
+            fileLock.readLock().unlock();
+        }
+
+        record.flip();
+        int length = record.getInt();
+        int checksum = record.getInt();
+        byte[] payload = new byte[length];
+        record.get(payload);
+        if (_checksum(payload, 0, length) != checksum) {
+            throw new IOException("Corrupted player data record at offset " + offset);
+        }
+        return payload;
+    }
+
+    private void _readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of player data file");
+            }
+        }
+    }
+
+    private void _writeFileHeader(FileChannel target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+        while (header.hasRemaining()) {
+            target.write(header, header.position());
+        }
+    }
+
+    private int _readFileHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        _readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not an OHC login data file: " + dataFile);
+        }
+        int version = header.getInt();
+        if (version != FORMAT_VERSION && version != LEGACY_JSON_VERSION) {
+            throw new IOException("Unsupported player data file version " + version);
+        }
+        return version;
+    }
+
+    /**
+     * 将版本 1（JSON 载荷）的数据文件一次性转换为二进制记录
+     */
+    private void _upgradeLegacyFile() throws IOException {
+        Gson gson = new Gson();
+        Map<String, PlayerData> records = new LinkedHashMap<>();
+        long size = channel.size();
+        long position = FILE_HEADER_SIZE;
+
+        while (position < size) {
+            byte[] payload = _readRecord(position, size);
+            if (payload == null) {
+                break;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            String playerName = in.readUTF();
+            if (in.readByte() == LEGACY_TYPE_TOMBSTONE) {
+                records.remove(playerName);
+            } else {
+                records.put(playerName, gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), PlayerData.class));
+            }
+            position += RECORD_HEADER_SIZE + payload.length;
+        }
+
+        Path tempFile = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            _writeFileHeader(out);
+            long outPosition = FILE_HEADER_SIZE;
+            for (PlayerData data : records.values()) {
+                byte[] record = PlayerDataCodec.encode(data);
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + record.length);
+                buffer.putInt(record.length).putInt(_checksum(record, 0, record.length)).put(record).flip();
+                while (buffer.hasRemaining()) {
+                    outPosition += out.write(buffer, outPosition);
+                }
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(tempFile, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        AtomicFiles.syncDirectory(dataFile.toAbsolutePath().getParent());
+        channel = FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Ohc_Login.LOGGER.info("Converted {} player records in {} to binary format", records.size(), dataFile);
+    }
+
+    /**
+     * 编码记录载荷，data 为 null 时生成删除标记
+     */
+    private byte[] _encode(String playerName, PlayerData data) {
+        return data == null ? PlayerDataCodec.encodeTombstone(playerName) : PlayerDataCodec.encode(data);
+    }
+
+    private PlayerData _decode(byte[] payload) throws IOException {
+        return PlayerDataCodec.decode(payload);
+    }
+
+    private boolean _isTombstone(byte[] payload) {
+        return PlayerDataCodec.isTombstone(payload);
+    }
+
+    private static int _checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,93 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * JSON 存储后端
+ * 兼容原有的 ohc_login_data.json 快照格式，变更写入追加日志，
+ * 由于 JSON 文件无法按需读取，启动时会载入全部记录
+ */
+public class JsonPlayerDataStorage implements PlayerDataStorage {
+    public static final String NAME = "json";
+    
+    private final Path dataFile;
+    private final PlayerDataJournal journal;
+    private final long flushIntervalMillis;
+    private final int compactionThreshold;
+    private final Map<String, PlayerData> records = new ConcurrentHashMap<>();
+    
+    public JsonPlayerDataStorage(Path worldDir, long flushIntervalMillis, int compactionThreshold, boolean fsync, boolean gzip) {
+        this.dataFile = worldDir.resolve("ohc_login_data.json");
+        this.journal = new PlayerDataJournal(dataFile, worldDir.resolve("ohc_login_data.journal"), fsync, gzip);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.compactionThreshold = compactionThreshold;
+    }
+    
+    /**
+     * 检查世界目录中是否存在 JSON 数据
+     */
+    public static boolean exists(Path worldDir) {
+        return Files.exists(worldDir.resolve("ohc_login_data.json"))
+                || Files.exists(worldDir.resolve("ohc_login_data.journal"));
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public void open() throws IOException {
+        if (!Files.exists(dataFile)) {
+            Ohc_Login.LOGGER.info("No existing player data file found, starting fresh");
+        }
+        journal.replay(records);
+        journal.start(flushIntervalMillis, compactionThreshold);
+    }
+    
+    @Override
+    public PlayerData load(String playerName) {
+        return records.get(playerName);
+    }
+    
+    @Override
+    public void save(PlayerData playerData) {
+        records.put(playerData.getPlayerName(), playerData);
+        journal.append(playerData);
+    }
+    
+    @Override
+    public void delete(String playerName) {
+        if (records.remove(playerName) != null) {
+            journal.appendDelete(playerName);
+        }
+    }
+    
+    @Override
+    public void forEach(Consumer<PlayerData> consumer) {
+        new ArrayList<>(records.values()).forEach(consumer);
+    }
+    
+    @Override
+    public int size() {
+        return records.size();
+    }
+    
+    @Override
+    public void flush() {
+        journal.flush();
+    }
+    
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
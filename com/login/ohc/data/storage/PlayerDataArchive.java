@@ -0,0 +1,229 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import com.login.ohc.utils.AtomicFiles;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 冷数据归档
+ * 长期未登录的玩家记录以 gzip 压缩的记录流写入只追加的段文件，段文件写入后不再修改；
+ * 内存中只保留玩家名到段编号的索引，读取时解压对应段并查找记录
+ * 同一玩家出现在多个段中时以编号最大的段为准，删除标记表示记录已离开归档
+ */
+public class PlayerDataArchive {
+    public static final int KIND_ARCHIVE = 2;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".ohcb.gz";
+
+    private final Path archiveDir;
+
+    // 玩家名 -> 保存其最新记录的段编号
+    private final Map<String, Integer> index = new ConcurrentHashMap<>();
+    // 已离开归档（重新载入或被覆盖）但尚未写入删除标记的玩家
+    private final Set<String> pendingRemovals = ConcurrentHashMap.newKeySet();
+    private int nextSegment = 1;
+
+    public PlayerDataArchive(Path worldDir) {
+        this.archiveDir = worldDir.resolve("ohc_login_archive");
+    }
+
+    /**
+     * 扫描所有段文件建立索引
+     */
+    public synchronized void open() throws IOException {
+        index.clear();
+        for (Path segment : _listSegments()) {
+            int segmentId = _segmentId(segment);
+            _readSegment(segment, record -> {
+                String name = PlayerDataCodec.readName(record);
+                if (PlayerDataCodec.isTombstone(record)) {
+                    index.remove(name);
+                } else {
+                    index.put(name, segmentId);
+                }
+            });
+            nextSegment = Math.max(nextSegment, segmentId + 1);
+        }
+
+        if (!index.isEmpty()) {
+            Ohc_Login.LOGGER.info("Opened player data archive with {} records in {} segments", index.size(), nextSegment - 1);
+        }
+    }
+
+    public boolean contains(String playerName) {
+        return index.containsKey(playerName);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 写入一个新段，写入落盘后才更新索引
+     * @param records 编码后的记录（可以包含删除标记）
+     */
+    public synchronized void append(List<byte[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        int segmentId = nextSegment++;
+        Path segment = _segmentPath(segmentId);
+        // 归档后会从热存储中删除记录，段文件必须先落盘
+        AtomicFiles.write(segment, out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+            PlayerDataCodec.RecordWriter writer = new PlayerDataCodec.RecordWriter(gzip, KIND_ARCHIVE, System.currentTimeMillis());
+            for (byte[] record : records) {
+                writer.write(record);
+            }
+            writer.finish();
+            gzip.finish();
+        }, true);
+
+        for (byte[] record : records) {
+            String name = PlayerDataCodec.readName(record);
+            if (PlayerDataCodec.isTombstone(record)) {
+                index.remove(name);
+            } else {
+                index.put(name, segmentId);
+                pendingRemovals.remove(name);
+            }
+        }
+    }
+
+    /**
+     * 读取归档中的玩家记录，不存在时返回 null
+     */
+    public PlayerData read(String playerName) throws IOException {
+        Integer segmentId = index.get(playerName);
+        if (segmentId == null) {
+            return null;
+        }
+
+        byte[][] found = new byte[1][];
+        _readSegment(_segmentPath(segmentId), record -> {
+            if (PlayerDataCodec.readName(record).equals(playerName)) {
+                // 同一段中后写入的记录更新，需要读完整个段
+                found[0] = record;
+            }
+        });
+        return found[0] != null ? PlayerDataCodec.decode(found[0]) : null;
+    }
+
+    /**
+     * 将玩家移出归档（记录已回到热存储），删除标记在下次写段时一起写入
+     */
+    public void forget(String playerName) {
+        if (index.remove(playerName) != null) {
+            pendingRemovals.add(playerName);
+        }
+    }
+
+    /**
+     * 逐段遍历归档中的有效记录
+     */
+    public void forEach(Consumer<PlayerData> consumer) throws IOException {
+        for (Path segment : _listSegments()) {
+            Integer segmentId = _segmentId(segment);
+            List<byte[]> live = new ArrayList<>();
+            _readSegment(segment, record -> {
+                if (!PlayerDataCodec.isTombstone(record) && segmentId.equals(index.get(PlayerDataCodec.readName(record)))) {
+                    live.add(record);
+                }
+            });
+            for (byte[] record : live) {
+                consumer.accept(PlayerDataCodec.decode(record));
+            }
+        }
+    }
+
+    /**
+     * 写入等待中的删除标记
+     */
+    public synchronized void flushRemovals() throws IOException {
+        if (pendingRemovals.isEmpty()) {
+            return;
+        }
+        List<String> names = new ArrayList<>(pendingRemovals);
+        List<byte[]> tombstones = new ArrayList<>();
+        for (String name : names) {
+            if (!index.containsKey(name)) {
+                tombstones.add(PlayerDataCodec.encodeTombstone(name));
+            }
+        }
+        append(tombstones);
+        names.forEach(pendingRemovals::remove);
+    }
+
+    public synchronized int getSegmentCount() throws IOException {
+        return _listSegments().size();
+    }
+
+    /**
+     * 获取归档段文件的总大小（字节）
+     */
+    public synchronized long getArchiveBytes() throws IOException {
+        long total = 0;
+        for (Path segment : _listSegments()) {
+            total += Files.size(segment);
+        }
+        return total;
+    }
+
+    /**
+     * 记录处理回调
+     */
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(byte[] record) throws IOException;
+    }
+
+    private void _readSegment(Path segment, RecordVisitor visitor) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(segment)), 64 * 1024)) {
+            PlayerDataCodec.RecordReader reader = new PlayerDataCodec.RecordReader(in);
+            byte[] record;
+            while ((record = reader.next()) != null) {
+                visitor.visit(record);
+            }
+        }
+    }
+
+    /**
+     * 按编号顺序列出所有段文件
+     */
+    private List<Path> _listSegments() throws IOException {
+        if (!Files.isDirectory(archiveDir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private Path _segmentPath(int segmentId) {
+        return archiveDir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private static int _segmentId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,309 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.data.PlayerData;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * 玩家记录二进制编码
+ * 紧凑的定长字段 + 变长整数格式，盐值和哈希直接写入原始字节，不经过 Gson
+ *
+ * 记录格式（版本 2）：
+ * [版本 u8][标志 u8][玩家名长度 u8][玩家名 UTF-8]
+ * [UUID 16字节，有UUID时]
+ * [算法长度 u8][算法 UTF-8][盐值长度 u8][盐值][哈希长度 u8][哈希]，有密码时（旧版算法长度为 0）
+ * [失败次数 varint][冷却结束时间 varlong][封停结束时间 varlong][最后登录时间 varlong]
+ * 删除标记只包含版本、标志和玩家名
+ * 版本 1 的密码部分为定长的盐值 16字节 + 哈希 32字节（旧版 SHA-256），仍可读取
+ *
+ * 记录流格式（备份文件）：
+ * [魔数 "OHCB"][流版本 u8][类型 u8][创建时间 long]，
+ * 之后每条记录为 [长度 varint][记录][CRC32 int]，以长度 0 结尾
+ */
+public class PlayerDataCodec {
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int LEGACY_FORMAT_VERSION = 1;
+    private static final int LEGACY_SALT_LENGTH = 16;
+    private static final int LEGACY_HASH_LENGTH = 32;
+    private static final int FLAG_HAS_PASSWORD = 1;
+    private static final int FLAG_HAS_UUID = 1 << 1;
+    private static final int FLAG_TOMBSTONE = 1 << 2;
+
+    private static final int STREAM_MAGIC = 0x4F484342; // "OHCB"
+    private static final int STREAM_VERSION = 1;
+
+    /**
+     * 编码玩家记录
+     */
+    public static byte[] encode(PlayerData data) {
+        synchronized (data) {
+            return encodeUnlocked(data);
+        }
+    }
+
+    /**
+     * 不持有记录锁编码（调用方已持有其他锁、不能再获取记录锁时使用，结果可能是修改中的状态）
+     */
+    static byte[] encodeUnlocked(PlayerData data) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            boolean hasPassword = data.hasPassword() && data.getHashedPassword() != null && data.getSalt() != null;
+            boolean hasUuid = data.getPlayerUuid() != null;
+            int flags = (hasPassword ? FLAG_HAS_PASSWORD : 0) | (hasUuid ? FLAG_HAS_UUID : 0);
+
+            _writeHeader(out, flags, data.getPlayerName());
+            if (hasUuid) {
+                UUID uuid = UUID.fromString(data.getPlayerUuid());
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+            if (hasPassword) {
+                String algorithm = data.getHashAlgorithm();
+                _writeBytes(out, algorithm != null ? algorithm.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+                _writeBytes(out, data.getSalt());
+                _writeBytes(out, data.getHashedPassword());
+            }
+            writeVarLong(out, data.getFailedAttempts());
+            writeVarLong(out, data.getCooldownEndTime());
+            writeVarLong(out, data.getBanEndTime());
+            writeVarLong(out, data.getLastLoginTime());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode player data", e);
+        }
+    }
+
+    /**
+     * 编码删除标记
+     */
+    public static byte[] encodeTombstone(String playerName) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            _writeHeader(new DataOutputStream(bytes), FLAG_TOMBSTONE, playerName);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode player data", e);
+        }
+    }
+
+    /**
+     * 解码玩家记录，删除标记返回 null
+     */
+    public static PlayerData decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION && version != LEGACY_FORMAT_VERSION) {
+            throw new IOException("Unsupported player record version " + version);
+        }
+        int flags = in.readUnsignedByte();
+        String playerName = _readName(in);
+        if ((flags & FLAG_TOMBSTONE) != 0) {
+            return null;
+        }
+
+        PlayerData data = new PlayerData(playerName);
+        if ((flags & FLAG_HAS_UUID) != 0) {
+            data.setPlayerUuid(new UUID(in.readLong(), in.readLong()).toString());
+        }
+        if ((flags & FLAG_HAS_PASSWORD) != 0) {
+            byte[] salt;
+            byte[] hash;
+            if (version == LEGACY_FORMAT_VERSION) {
+                salt = new byte[LEGACY_SALT_LENGTH];
+                hash = new byte[LEGACY_HASH_LENGTH];
+                in.readFully(salt);
+                in.readFully(hash);
+            } else {
+                byte[] algorithm = _readBytes(in);
+                salt = _readBytes(in);
+                hash = _readBytes(in);
+                data.setHashAlgorithm(algorithm.length > 0 ? new String(algorithm, StandardCharsets.UTF_8) : null);
+            }
+            data.setSalt(salt);
+            data.setHashedPassword(hash);
+            data.setHasPassword(true);
+        }
+        data.setFailedAttempts((int) readVarLong(in));
+        data.setCooldownEndTime(readVarLong(in));
+        data.setBanEndTime(readVarLong(in));
+        data.setLastLoginTime(readVarLong(in));
+        return data;
+    }
+
+    /**
+     * 只读取记录中的玩家名（建立索引时使用）
+     */
+    public static String readName(byte[] record) {
+        int length = record[2] & 0xFF;
+        return new String(record, 3, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 检查记录是否为删除标记
+     */
+    public static boolean isTombstone(byte[] record) {
+        return (record[1] & FLAG_TOMBSTONE) != 0;
+    }
+
+    /**
+     * 写入无符号变长整数（每字节7位，最高位表示后面还有字节）
+     */
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * 读取无符号变长整数
+     */
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in player record");
+    }
+
+    /**
+     * 记录流写入器，按帧写入编码后的记录
+     */
+    public static class RecordWriter {
+        private final DataOutputStream out;
+        private final CRC32 crc = new CRC32();
+
+        public RecordWriter(OutputStream out, int kind, long createdAt) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(STREAM_MAGIC);
+            this.out.writeByte(STREAM_VERSION);
+            this.out.writeByte(kind);
+            this.out.writeLong(createdAt);
+        }
+
+        /**
+         * 写入一条编码后的记录
+         */
+        public void write(byte[] record) throws IOException {
+            crc.reset();
+            crc.update(record);
+            writeVarLong(out, record.length);
+            out.write(record);
+            out.writeInt((int) crc.getValue());
+        }
+
+        /**
+         * 写入结束标记（没有结束标记的流视为不完整）
+         */
+        public void finish() throws IOException {
+            writeVarLong(out, 0);
+            out.flush();
+        }
+    }
+
+    /**
+     * 记录流读取器，逐帧校验并返回编码后的记录
+     */
+    public static class RecordReader {
+        private final DataInputStream in;
+        private final CRC32 crc = new CRC32();
+        private final int kind;
+        private final long createdAt;
+
+        public RecordReader(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            if (this.in.readInt() != STREAM_MAGIC) {
+                throw new IOException("Not a player record stream");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != STREAM_VERSION) {
+                throw new IOException("Unsupported player record stream version " + version);
+            }
+            this.kind = this.in.readUnsignedByte();
+            this.createdAt = this.in.readLong();
+        }
+
+        public int getKind() {
+            return kind;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        /**
+         * 读取下一条记录，到达结束标记时返回 null
+         */
+        public byte[] next() throws IOException {
+            try {
+                int length = (int) readVarLong(in);
+                if (length == 0) {
+                    return null;
+                }
+                byte[] record = new byte[length];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if (in.readInt() != (int) crc.getValue()) {
+                    throw new IOException("Checksum mismatch in player record stream");
+                }
+                return record;
+            } catch (EOFException e) {
+                throw new IOException("Player record stream is truncated", e);
+            }
+        }
+    }
+
+    private static void _writeHeader(DataOutput out, int flags, String playerName) throws IOException {
+        byte[] name = playerName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > 255) {
+            throw new IOException("Player name too long: " + playerName);
+        }
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(flags);
+        out.writeByte(name.length);
+        out.write(name);
+    }
+
+    private static String _readName(DataInput in) throws IOException {
+        byte[] name = new byte[in.readUnsignedByte()];
+        in.readFully(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写入长度不超过 255 的字节串
+     */
+    private static void _writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if (bytes.length > 255) {
+            throw new IOException("Field too long for player record: " + bytes.length + " bytes");
+        }
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] _readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,318 @@
+package com.login.ohc.data.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import com.login.ohc.utils.JsonFiles;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 玩家数据变更日志
+ * 将变更的玩家记录追加到日志文件中，由后台线程按固定间隔批量写入，
+ * 日志过长时压缩合并到快照文件，启动时通过快照加日志重放恢复数据
+ * 快照以流式方式逐条读写，内存占用与单条记录相当，可选 gzip 压缩（读取时自动识别）
+ */
+public class PlayerDataJournal {
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Gson gson;
+    private final boolean fsync;
+    private final boolean gzip;
+
+    // 等待写入的记录（同一玩家的多次变更只保留最后一次）
+    private final Map<String, String> pendingLines = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService writer;
+    private FileChannel journalChannel;
+    private int compactionThreshold;
+    private int journalEntries;
+    // 日志文件中完整条目的总长度，写入从这里开始，写入失败时残留的部分内容会被下次写入覆盖
+    private long journalSize;
+
+    public PlayerDataJournal(Path snapshotFile, Path journalFile, boolean fsync, boolean gzip) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.fsync = fsync;
+        this.gzip = gzip;
+        this.gson = new Gson();
+    }
+
+    /**
+     * 读取快照并重放日志，将恢复后的玩家数据放入 records
+     */
+    public void replay(Map<String, PlayerData> records) throws IOException {
+        if (_hasSnapshot()) {
+            try (JsonReader reader = JsonFiles.openReader(snapshotFile)) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    PlayerData data = gson.fromJson(reader, PlayerData.class);
+                    if (data != null) {
+                        records.put(name, data);
+                    }
+                }
+                reader.endObject();
+            }
+        }
+
+        int[] replayed = new int[1];
+        journalSize = _readJournal(entry -> {
+            String name = entry.get("name").getAsString();
+            if (entry.has("deleted")) {
+                records.remove(name);
+            } else {
+                records.put(name, gson.fromJson(entry.get("data"), PlayerData.class));
+            }
+            replayed[0]++;
+        });
+
+        if (replayed[0] > 0) {
+            Ohc_Login.LOGGER.info("Replayed {} journal entries", replayed[0]);
+        }
+        journalEntries = replayed[0];
+    }
+
+    /**
+     * 启动后台写入线程（在 replay 之后调用）
+     * 日志末尾写入不完整的部分先截掉，之后的写入不会接在残缺的行后面
+     */
+    public void start(long flushIntervalMillis, int compactionThreshold) throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        this.compactionThreshold = compactionThreshold;
+        this.journalChannel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (journalChannel.size() > journalSize) {
+            Ohc_Login.LOGGER.warn("Truncating {} bytes of incomplete journal data", journalChannel.size() - journalSize);
+            journalChannel.truncate(journalSize);
+            journalChannel.force(true);
+        }
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OHC-Login-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::_groupCommit, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次玩家数据变更（在调用线程序列化，写入由后台线程完成）
+     */
+    public void append(PlayerData playerData) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("name", playerData.getPlayerName());
+        entry.add("data", gson.toJsonTree(playerData));
+        pendingLines.put(playerData.getPlayerName(), gson.toJson(entry));
+    }
+    
+    /**
+     * 记录一次玩家数据删除
+     */
+    public void appendDelete(String playerName) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("name", playerName);
+        entry.addProperty("deleted", true);
+        pendingLines.put(playerName, gson.toJson(entry));
+    }
+
+    /**
+     * 立即写入所有等待中的变更
+     */
+    public synchronized void flush() {
+        try {
+            _writePending();
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to flush player data journal", e);
+        }
+    }
+
+    /**
+     * 停止后台线程，写入剩余变更并压缩到快照
+     */
+    public synchronized void close() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            _writePending();
+            _compact();
+            if (journalChannel != null) {
+                journalChannel.close();
+            }
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to close player data journal", e);
+        }
+    }
+
+    /**
+     * 后台定时任务：批量提交变更，必要时压缩
+     */
+    private synchronized void _groupCommit() {
+        try {
+            _writePending();
+            if (journalEntries >= compactionThreshold) {
+                _compact();
+            }
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to commit player data journal", e);
+        }
+    }
+
+    /**
+     * 将等待中的变更追加到日志文件并落盘
+     * 写入成功后才移除等待中的记录，失败时保留到下次重试
+     */
+    private void _writePending() throws IOException {
+        if (pendingLines.isEmpty() || journalChannel == null) {
+            return;
+        }
+
+        Map<String, String> batch = new HashMap<>(pendingLines);
+        StringBuilder lines = new StringBuilder();
+        for (String line : batch.values()) {
+            lines.append(line).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        long position = journalSize;
+        while (buffer.hasRemaining()) {
+            position += journalChannel.write(buffer, position);
+        }
+        if (fsync) {
+            journalChannel.force(false);
+        }
+        journalSize = position;
+        journalEntries += batch.size();
+
+        for (Map.Entry<String, String> entry : batch.entrySet()) {
+            pendingLines.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 将快照和日志合并为新快照，然后清空日志
+     * 只读写文件，不访问内存中的玩家数据；旧快照逐条复制到新快照，只有日志中的变更需要放在内存中
+     */
+    private void _compact() throws IOException {
+        if (journalEntries == 0) {
+            return;
+        }
+
+        // 日志中的最新变更，值为 null 表示已删除
+        Map<String, JsonElement> changes = new LinkedHashMap<>();
+        _readJournal(entry -> {
+            String name = entry.get("name").getAsString();
+            changes.put(name, entry.has("deleted") ? null : entry.get("data"));
+        });
+
+        // 先写临时文件再替换，避免压缩过程中崩溃损坏快照；
+        // 快照落盘后才会清空日志，所以这里始终强制刷盘
+        int[] written = new int[1];
+        boolean hasSnapshot = _hasSnapshot();
+        JsonFiles.write(snapshotFile, gzip, true, writer -> {
+            writer.beginObject();
+            if (hasSnapshot) {
+                try (JsonReader reader = JsonFiles.openReader(snapshotFile)) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+                        if (changes.containsKey(name)) {
+                            reader.skipValue();
+                            continue;
+                        }
+                        writer.name(name);
+                        gson.toJson(JsonParser.parseReader(reader), writer);
+                        written[0]++;
+                    }
+                    reader.endObject();
+                }
+            }
+            for (Map.Entry<String, JsonElement> change : changes.entrySet()) {
+                if (change.getValue() != null) {
+                    writer.name(change.getKey());
+                    gson.toJson(change.getValue(), writer);
+                    written[0]++;
+                }
+            }
+            writer.endObject();
+        });
+
+        journalChannel.truncate(0);
+        if (fsync) {
+            journalChannel.force(true);
+        }
+        journalSize = 0;
+        Ohc_Login.LOGGER.info("Compacted {} journal entries into snapshot ({} players)", journalEntries, written[0]);
+        journalEntries = 0;
+    }
+
+    private boolean _hasSnapshot() throws IOException {
+        return Files.exists(snapshotFile) && Files.size(snapshotFile) > 0;
+    }
+
+    /**
+     * 逐行读取日志，遇到写入不完整的行（没有换行结尾或无法解析）时停止
+     * @return 最后一个完整行之后的字节位置
+     */
+    private long _readJournal(Consumer<JsonObject> consumer) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
+
+        long validLength = 0;
+        int count = 0;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(journalFile))) {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.UTF_8);
+                if (!text.isBlank()) {
+                    try {
+                        consumer.accept(JsonParser.parseString(text).getAsJsonObject());
+                        count++;
+                    } catch (JsonParseException | IllegalStateException e) {
+                        Ohc_Login.LOGGER.warn("Ignoring corrupted journal data after {} entries", count);
+                        return validLength;
+                    }
+                }
+                validLength += line.size() + 1;
+                line.reset();
+            }
+        }
+        if (line.size() > 0) {
+            Ohc_Login.LOGGER.warn("Ignoring truncated journal entry after {} entries", count);
+        }
+        return validLength;
+    }
+}
@@ -0,0 +1,57 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.data.PlayerData;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * 玩家数据存储接口
+ * PlayerDataManager 通过该接口按需读取和写入单个玩家记录，具体存储格式由实现决定
+ */
+public interface PlayerDataStorage {
+    
+    /**
+     * 获取存储后端名称
+     */
+    String getName();
+    
+    /**
+     * 打开存储，加载索引等必要信息
+     */
+    void open() throws IOException;
+    
+    /**
+     * 读取指定玩家的记录，不存在时返回 null
+     */
+    PlayerData load(String playerName) throws IOException;
+    
+    /**
+     * 写入玩家记录（可以异步落盘，但之后的 load 必须能读到）
+     */
+    void save(PlayerData playerData);
+    
+    /**
+     * 删除玩家记录
+     */
+    void delete(String playerName);
+    
+    /**
+     * 逐条遍历所有记录（用于迁移和维护，不应一次性载入全部记录）
+     */
+    void forEach(Consumer<PlayerData> consumer) throws IOException;
+    
+    /**
+     * 获取记录总数
+     */
+    int size();
+    
+    /**
+     * 立即写入所有等待中的变更
+     */
+    void flush();
+    
+    /**
+     * 写入剩余变更并释放资源
+     */
+    void close();
+}
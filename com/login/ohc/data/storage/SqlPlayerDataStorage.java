@@ -0,0 +1,366 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * SQL 存储后端
+ * 通过 JDBC 将玩家记录保存到嵌入式数据库（SQLite 或 H2 文件模式），
+ * 写入先进入队列，由后台线程批量 upsert；读取为按主键的单行查询
+ * mod 不附带数据库驱动，需要把 SQLite（org.xerial:sqlite-jdbc）或 H2（com.h2database:h2）的驱动加入服务器的类路径
+ */
+public class SqlPlayerDataStorage implements PlayerDataStorage {
+    public static final String NAME = "sql";
+
+    private static final String TABLE = "ohc_login_players";
+    private static final String COLUMNS = "player_name, player_uuid, hashed_password, salt, has_password, "
+            + "failed_attempts, cooldown_end_time, ban_end_time, last_login_time, hash_algorithm";
+
+    private final String jdbcUrl;
+    private final long flushIntervalMillis;
+
+    // 尚未写入数据库的记录，值为 null 的行表示删除
+    private final Map<String, Row> pending = new ConcurrentHashMap<>();
+
+    // 读连接不是线程安全的，查询按此锁串行执行
+    private final Object readLock = new Object();
+
+    private volatile Connection readConnection;
+    private volatile Connection writeConnection;
+    private ScheduledExecutorService writer;
+
+    /**
+     * 写入队列中的一行（保存时复制字段，避免后台线程读取正在修改的对象）
+     */
+    private record Row(String playerName, String playerUuid, String hashedPassword, String salt, boolean hasPassword,
+                       int failedAttempts, long cooldownEndTime, long banEndTime, long lastLoginTime, String hashAlgorithm,
+                       boolean deleted) {
+
+        static Row of(PlayerData data) {
+            return new Row(data.getPlayerName(), data.getPlayerUuid(), _encode(data.getHashedPassword()), _encode(data.getSalt()),
+                    data.hasPassword(), data.getFailedAttempts(), data.getCooldownEndTime(), data.getBanEndTime(),
+                    data.getLastLoginTime(), data.getHashAlgorithm(), false);
+        }
+
+        static Row deleted(String playerName) {
+            return new Row(playerName, null, null, null, false, 0, 0, 0, 0, null, true);
+        }
+
+        PlayerData toPlayerData() {
+            PlayerData data = new PlayerData(playerName);
+            data.setPlayerUuid(playerUuid);
+            data.setHashedPassword(_decode(hashedPassword));
+            data.setSalt(_decode(salt));
+            data.setHashAlgorithm(hashAlgorithm);
+            data.setHasPassword(hasPassword);
+            data.setFailedAttempts(failedAttempts);
+            data.setCooldownEndTime(cooldownEndTime);
+            data.setBanEndTime(banEndTime);
+            data.setLastLoginTime(lastLoginTime);
+            return data;
+        }
+
+        // 盐值和哈希列保存为 Base64 文本，与旧版表结构兼容
+        private static String _encode(byte[] bytes) {
+            return bytes != null ? Base64.getEncoder().encodeToString(bytes) : null;
+        }
+
+        private static byte[] _decode(String base64) {
+            return base64 != null ? Base64.getDecoder().decode(base64) : null;
+        }
+    }
+
+    public SqlPlayerDataStorage(Path worldDir, String jdbcUrl, long flushIntervalMillis) {
+        this.jdbcUrl = jdbcUrl.replace("{world}", worldDir.toAbsolutePath().toString());
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void open() throws IOException {
+        try {
+            Driver driver = _findDriver();
+            writeConnection = driver.connect(jdbcUrl, new Properties());
+            readConnection = driver.connect(jdbcUrl, new Properties());
+            _createSchema();
+            writeConnection.setAutoCommit(false);
+        } catch (SQLException e) {
+            // 只打开了一部分连接时全部关闭，保持未打开状态
+            _closeConnections();
+            throw new IOException("Failed to open player database " + jdbcUrl, e);
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OHC-Login-Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        Ohc_Login.LOGGER.info("Opened SQL player data storage at {}", jdbcUrl);
+    }
+
+    @Override
+    public PlayerData load(String playerName) throws IOException {
+        Row row = pending.get(playerName);
+        if (row != null) {
+            return row.deleted() ? null : row.toPlayerData();
+        }
+
+        synchronized (readLock) {
+            try (PreparedStatement statement = _requireReadConnection().prepareStatement(
+                    "SELECT " + COLUMNS + " FROM " + TABLE + " WHERE player_name = ?")) {
+                statement.setString(1, playerName);
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() ? _readRow(result) : null;
+                }
+            } catch (SQLException e) {
+                throw new IOException("Failed to load player " + playerName, e);
+            }
+        }
+    }
+
+    @Override
+    public void save(PlayerData playerData) {
+        pending.put(playerData.getPlayerName(), Row.of(playerData));
+    }
+
+    @Override
+    public void delete(String playerName) {
+        pending.put(playerName, Row.deleted(playerName));
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerData> consumer) throws IOException {
+        flush();
+        synchronized (readLock) {
+            try (PreparedStatement statement = _requireReadConnection().prepareStatement("SELECT " + COLUMNS + " FROM " + TABLE)) {
+                statement.setFetchSize(500);
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        consumer.accept(_readRow(result));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IOException("Failed to scan player database", e);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (readLock) {
+            if (readConnection == null) {
+                return 0;
+            }
+            try (Statement statement = readConnection.createStatement();
+                 ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+                return result.next() ? result.getInt(1) : 0;
+            } catch (SQLException e) {
+                Ohc_Login.LOGGER.error("Failed to count player records", e);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 将等待中的变更在一个事务内批量写入
+     */
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty() || writeConnection == null) {
+            return;
+        }
+
+        Map<String, Row> batch = new HashMap<>(pending);
+        try (PreparedStatement upsert = writeConnection.prepareStatement(_upsertSql());
+             PreparedStatement delete = writeConnection.prepareStatement("DELETE FROM " + TABLE + " WHERE player_name = ?")) {
+            for (Row row : batch.values()) {
+                if (row.deleted()) {
+                    delete.setString(1, row.playerName());
+                    delete.addBatch();
+                } else {
+                    _bindRow(upsert, row);
+                    upsert.addBatch();
+                }
+            }
+            upsert.executeBatch();
+            delete.executeBatch();
+            writeConnection.commit();
+
+            batch.forEach(pending::remove);
+        } catch (SQLException e) {
+            Ohc_Login.LOGGER.error("Failed to write {} player records to database", batch.size(), e);
+            try {
+                writeConnection.rollback();
+            } catch (SQLException rollbackError) {
+                Ohc_Login.LOGGER.error("Failed to roll back player database transaction", rollbackError);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+        _closeConnections();
+    }
+
+    private synchronized void _closeConnections() {
+        try {
+            if (writeConnection != null) {
+                writeConnection.close();
+            }
+            synchronized (readLock) {
+                if (readConnection != null) {
+                    readConnection.close();
+                }
+            }
+        } catch (SQLException e) {
+            Ohc_Login.LOGGER.error("Failed to close player database", e);
+        } finally {
+            writeConnection = null;
+            readConnection = null;
+        }
+    }
+
+    /**
+     * 查找能处理 jdbcUrl 的驱动
+     * 先按 mod 的类加载器查找，mod 加载器下 DriverManager 可能拒绝由其他加载器注册的驱动
+     */
+    private Driver _findDriver() throws IOException {
+        try {
+            for (Driver driver : ServiceLoader.load(Driver.class, SqlPlayerDataStorage.class.getClassLoader())) {
+                if (driver.acceptsURL(jdbcUrl)) {
+                    return driver;
+                }
+            }
+        } catch (ServiceConfigurationError | SQLException e) {
+            Ohc_Login.LOGGER.warn("Failed to look up JDBC drivers", e);
+        }
+        try {
+            return DriverManager.getDriver(jdbcUrl);
+        } catch (SQLException e) {
+            throw new IOException("No JDBC driver for " + jdbcUrl
+                    + ", add sqlite-jdbc or h2 to the server classpath", e);
+        }
+    }
+
+    /**
+     * 获取读连接，数据库未打开或已关闭时抛出异常
+     */
+    private Connection _requireReadConnection() throws IOException {
+        Connection connection = readConnection;
+        if (connection == null) {
+            throw new IOException("Player database is not open: " + jdbcUrl);
+        }
+        return connection;
+    }
+
+    /**
+     * 创建表和索引（玩家名为主键，另外按UUID和封停结束时间建立索引）
+     */
+    private void _createSchema() throws SQLException {
+        try (Statement statement = writeConnection.createStatement()) {
+            if (jdbcUrl.startsWith("jdbc:sqlite:")) {
+                // WAL 模式下读连接不会被批量写入阻塞
+                statement.execute("PRAGMA journal_mode=WAL");
+            }
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "player_name VARCHAR(64) NOT NULL PRIMARY KEY, "
+                    + "player_uuid VARCHAR(36), "
+                    + "hashed_password VARCHAR(255), "
+                    + "salt VARCHAR(255), "
+                    + "has_password BOOLEAN NOT NULL, "
+                    + "failed_attempts INT NOT NULL, "
+                    + "cooldown_end_time BIGINT NOT NULL, "
+                    + "ban_end_time BIGINT NOT NULL, "
+                    + "last_login_time BIGINT NOT NULL, "
+                    + "hash_algorithm VARCHAR(255))");
+            _addColumnIfMissing(statement, "hash_algorithm", "VARCHAR(255)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_uuid ON " + TABLE + " (player_uuid)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_ban ON " + TABLE + " (ban_end_time)");
+        }
+    }
+
+    /**
+     * 为旧版本创建的表补充新增的列
+     */
+    private void _addColumnIfMissing(Statement statement, String column, String type) throws SQLException {
+        try {
+            statement.executeQuery("SELECT " + column + " FROM " + TABLE + " WHERE 1 = 0").close();
+        } catch (SQLException e) {
+            statement.execute("ALTER TABLE " + TABLE + " ADD COLUMN " + column + " " + type);
+            Ohc_Login.LOGGER.info("Added column {} to {}", column, TABLE);
+        }
+    }
+
+    /**
+     * 按数据库方言生成 upsert 语句
+     */
+    private String _upsertSql() {
+        if (jdbcUrl.startsWith("jdbc:h2:")) {
+            return "MERGE INTO " + TABLE + " (" + COLUMNS + ") KEY (player_name) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        }
+        return "INSERT INTO " + TABLE + " (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                + "ON CONFLICT (player_name) DO UPDATE SET "
+                + "player_uuid = excluded.player_uuid, hashed_password = excluded.hashed_password, "
+                + "salt = excluded.salt, has_password = excluded.has_password, "
+                + "failed_attempts = excluded.failed_attempts, cooldown_end_time = excluded.cooldown_end_time, "
+                + "ban_end_time = excluded.ban_end_time, last_login_time = excluded.last_login_time, "
+                + "hash_algorithm = excluded.hash_algorithm";
+    }
+
+    private static void _bindRow(PreparedStatement statement, Row row) throws SQLException {
+        statement.setString(1, row.playerName());
+        statement.setString(2, row.playerUuid());
+        statement.setString(3, row.hashedPassword());
+        statement.setString(4, row.salt());
+        statement.setBoolean(5, row.hasPassword());
+        statement.setInt(6, row.failedAttempts());
+        statement.setLong(7, row.cooldownEndTime());
+        statement.setLong(8, row.banEndTime());
+        statement.setLong(9, row.lastLoginTime());
+        statement.setString(10, row.hashAlgorithm());
+    }
+
+    private static PlayerData _readRow(ResultSet result) throws SQLException {
+        return new Row(
+                result.getString(1), result.getString(2), result.getString(3), result.getString(4),
+                result.getBoolean(5), result.getInt(6), result.getLong(7), result.getLong(8), result.getLong(9),
+                result.getString(10), false
+        ).toPlayerData();
+    }
+}
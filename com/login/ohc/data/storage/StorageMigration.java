@@ -0,0 +1,39 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.Ohc_Login;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 存储迁移工具
+ * 将一个存储后端中的玩家记录逐条复制到另一个后端，目标中已存在的记录不会被覆盖
+ */
+public class StorageMigration {
+    
+    /**
+     * 执行迁移，返回复制的记录数
+     */
+    public static int migrate(PlayerDataStorage source, PlayerDataStorage target) throws IOException {
+        AtomicInteger copied = new AtomicInteger();
+        try {
+            source.forEach(playerData -> {
+                try {
+                    if (target.load(playerData.getPlayerName()) == null) {
+                        target.save(playerData);
+                        copied.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        target.flush();
+        
+        Ohc_Login.LOGGER.info("Migrated {} player records from {} storage to {} storage",
+                copied.get(), source.getName(), target.getName());
+        return copied.get();
+    }
+}
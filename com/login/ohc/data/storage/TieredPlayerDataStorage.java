@@ -0,0 +1,169 @@
+package com.login.ohc.data.storage;
+
+import com.login.ohc.Ohc_Login;
+import com.login.ohc.data.PlayerData;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 分层存储
+ * 活跃玩家的记录保存在热存储（json、kv 或 sql）中，长期未登录的玩家记录移入压缩归档，
+ * 读取归档中的玩家时自动将记录移回热存储，对 PlayerDataManager 透明
+ */
+public class TieredPlayerDataStorage implements PlayerDataStorage {
+    private final PlayerDataStorage hot;
+    private final PlayerDataArchive archive;
+
+    /**
+     * 一次归档的结果
+     */
+    public record ArchiveResult(int archived, int skipped) {
+    }
+
+    public TieredPlayerDataStorage(PlayerDataStorage hot, Path worldDir) {
+        this.hot = hot;
+        this.archive = new PlayerDataArchive(worldDir);
+    }
+
+    @Override
+    public String getName() {
+        return hot.getName();
+    }
+
+    @Override
+    public void open() throws IOException {
+        hot.open();
+        archive.open();
+    }
+
+    @Override
+    public PlayerData load(String playerName) throws IOException {
+        PlayerData data = hot.load(playerName);
+        if (data != null || !archive.contains(playerName)) {
+            return data;
+        }
+        return _rehydrate(playerName);
+    }
+
+    @Override
+    public synchronized void save(PlayerData playerData) {
+        hot.save(playerData);
+        // 热存储中的记录比归档中的新
+        archive.forget(playerData.getPlayerName());
+    }
+
+    @Override
+    public synchronized void delete(String playerName) {
+        hot.delete(playerName);
+        archive.forget(playerName);
+    }
+
+    @Override
+    public void forEach(Consumer<PlayerData> consumer) throws IOException {
+        hot.forEach(consumer);
+        archive.forEach(consumer);
+    }
+
+    @Override
+    public int size() {
+        return hot.size() + archive.size();
+    }
+
+    @Override
+    public void flush() {
+        hot.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            archive.flushRemovals();
+        } catch (IOException e) {
+            Ohc_Login.LOGGER.error("Failed to write player data archive removals", e);
+        }
+        hot.close();
+    }
+
+    /**
+     * 将最后登录时间早于 cutoffTime 的记录移入归档
+     * @param isActive 返回 true 的玩家（例如在线玩家）不会被归档
+     */
+    public ArchiveResult archiveIdle(long cutoffTime, Predicate<String> isActive) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        hot.forEach(data -> {
+            if (data.getLastLoginTime() < cutoffTime && !isActive.test(data.getPlayerName())) {
+                records.add(PlayerDataCodec.encode(data));
+            }
+        });
+        if (records.isEmpty()) {
+            archive.flushRemovals();
+            return new ArchiveResult(0, 0);
+        }
+
+        // 先写入归档段，再从热存储中删除
+        archive.append(records);
+        archive.flushRemovals();
+
+        int archived = 0;
+        int skipped = 0;
+        for (byte[] record : records) {
+            String name = PlayerDataCodec.readName(record);
+            synchronized (this) {
+                // 归档期间被修改过的记录留在热存储中，归档中的旧副本作废
+                // 保存时先持有记录锁再进入本锁，这里不能再获取记录锁；
+                // 正在修改的记录之后一定会被保存，即使此时删除也会重新写回热存储
+                PlayerData current = hot.load(name);
+                if (current != null && Arrays.equals(PlayerDataCodec.encodeUnlocked(current), record)) {
+                    hot.delete(name);
+                    archived++;
+                } else {
+                    archive.forget(name);
+                    skipped++;
+                }
+            }
+        }
+        hot.flush();
+
+        Ohc_Login.LOGGER.info("Archived {} idle player records ({} changed during archiving)", archived, skipped);
+        return new ArchiveResult(archived, skipped);
+    }
+
+    public int getHotSize() {
+        return hot.size();
+    }
+
+    public int getArchivedSize() {
+        return archive.size();
+    }
+
+    public int getSegmentCount() throws IOException {
+        return archive.getSegmentCount();
+    }
+
+    public long getArchiveBytes() throws IOException {
+        return archive.getArchiveBytes();
+    }
+
+    /**
+     * 从归档中读取记录并写回热存储
+     */
+    private synchronized PlayerData _rehydrate(String playerName) throws IOException {
+        PlayerData data = hot.load(playerName);
+        if (data != null) {
+            return data;
+        }
+
+        data = archive.read(playerName);
+        if (data != null) {
+            hot.save(data);
+            archive.forget(playerName);
+            Ohc_Login.LOGGER.info("Restored archived player data for {}", playerName);
+        }
+        return data;
+    }
+}
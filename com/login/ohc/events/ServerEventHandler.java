@@ -1,19 +1,32 @@
 package com.login.ohc.events;
 
 import com.login.ohc.Ohc_Login;
+import com.login.ohc.auth.AuthWorkerPool;
+import com.login.ohc.auth.LoginAdmission;
+import com.login.ohc.auth.LoginTimeout;
+import com.login.ohc.auth.PasswordHashing;
 import com.login.ohc.config.MessageConfig;
 import com.login.ohc.config.LoggedPlayersConfig;
 import com.login.ohc.effects.BlindnessEffectManager;
+import com.login.ohc.data.LockoutIndex;
 import com.login.ohc.data.PlayerData;
 import com.login.ohc.data.PlayerDataManager;
+import com.login.ohc.data.PlayerSessionManager;
+import com.login.ohc.mixin.ServerConfigurationNetworkHandlerAccessor;
 import com.login.ohc.network.LoginPacketHandler;
 import com.login.ohc.restrictions.PlayerRestrictionManager;
+import com.login.ohc.restrictions.RestrictedPlayerRegistry;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerConfigurationConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.class_124;
 import net.minecraft.class_2561;
 import net.minecraft.class_3222;
+import net.minecraft.class_8610;
+import net.minecraft.server.MinecraftServer;
+import java.util.UUID;
 
 /**
  * 服务端事件处理器
@@ -27,10 +40,25 @@ public class ServerEventHandler {
     public static void registerEvents() {
         // 注册服务器启动事件
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            MessageConfig config = MessageConfig.getInstance();
+            PasswordHashing.getInstance().calibrate(config.getPasswordHashAlgorithm(), config.getPasswordHashTargetMillis());
+            AuthWorkerPool.getInstance().start(config.getAuthWorkerThreads(), config.getAuthQueueLimit());
+            applyLoginAdmissionConfig();
             PlayerDataManager.getInstance().initialize(server);
             Ohc_Login.LOGGER.info("PlayerDataManager initialized");
         });
         
+        // 每个游戏刻限制未登录玩家的移动，按预算放行排队的登录尝试，执行到期的延迟任务，并分批清理过期状态
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            RestrictedPlayerRegistry.getInstance().tick();
+            LoginAdmission.getInstance().tick();
+            TickScheduler.getInstance().tick();
+            PlayerDataManager.getInstance().cleanupExpiredStates();
+        });
+        
+        // 配置阶段拒绝被封停的玩家，不创建玩家实体也不发送区块
+        ServerConfigurationConnectionEvents.CONFIGURE.register((handler, server) -> _onPlayerConfigure(handler));
+        
         // 注册玩家加入事件
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             class_3222 player = handler.method_32311();
@@ -55,17 +83,53 @@ public class ServerEventHandler {
         Ohc_Login.LOGGER.info("Server events registered successfully");
     }
     
+    /**
+     * 按当前配置设置登录准入控制（启动和重载配置时调用）
+     */
+    public static void applyLoginAdmissionConfig() {
+        MessageConfig config = MessageConfig.getInstance();
+        LoginAdmission.getInstance().configure(config.getLoginAttemptsPerSecond(), config.getLoginAttemptBurst(),
+                config.getLoginHashesPerTick(), config.getLoginQueueLimit());
+    }
+    
+    /**
+     * 配置阶段检查封停索引，被封停的玩家在进入游戏前断开连接
+     */
+    private static void _onPlayerConfigure(class_8610 handler) {
+        String playerName = ((ServerConfigurationNetworkHandlerAccessor) handler).ohc_login$getProfile().getName();
+        // 存储不可用时无法判断玩家是否已注册，拒绝所有玩家进入
+        if (!PlayerDataManager.getInstance().isStorageAvailable()) {
+            handler.method_52396(class_2561.method_43470(MessageConfig.getInstance().getErrorMessage("storage_unavailable")));
+            Ohc_Login.LOGGER.warn("Refused player {} because player data storage is unavailable", playerName);
+            return;
+        }
+        LockoutIndex banIndex = PlayerDataManager.getInstance().getBanIndex();
+        long banEndTime = banIndex.getEndTime(playerName);
+        if (banEndTime == 0) {
+            return;
+        }
+        
+        long remainingHours = (banEndTime - System.currentTimeMillis()) / (1000 * 60 * 60);
+        String banMessage = MessageConfig.getInstance().getErrorMessage("player_banned")
+                .replace("{time}", String.valueOf(remainingHours));
+        handler.method_52396(class_2561.method_43470(banMessage));
+        Ohc_Login.LOGGER.info("Refused banned player {} during configuration", playerName);
+    }
+    
     /**
      * 处理玩家加入事件
      */
     private static void _onPlayerJoin(class_3222 player) {
         String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
+        PlayerData playerData = PlayerDataManager.getInstance().loadOnlinePlayer(playerName);
+        
+        // 为本次连接创建会话（未登录状态）
+        PlayerSessionManager.getInstance().startSession(player);
+        LoginTimeout.getInstance().start(player);
         
         Ohc_Login.LOGGER.info("Player {} joined the server", playerName);
         
-        // 检查玩家是否被封停
+        // 检查玩家是否被封停（通常已在配置阶段被拒绝，这里处理配置期间刚被封停的情况）
         if (playerData.isBanned()) {
             long remainingHours = playerData.getRemainingBanHours();
             MessageConfig config = MessageConfig.getInstance();
@@ -81,19 +145,7 @@ public class ServerEventHandler {
             player.method_7353(banMessage, false);
             
             // 延迟后踢出玩家
-            int kickDelaySeconds = config.getKickDelaySeconds();
-            new Thread(() -> {
-                try {
-                    Thread.sleep(kickDelaySeconds * 1000);
-                    player.method_5682().execute(() -> {
-                        if (player.field_13987 != null && !player.method_14239()) {
-                            player.field_13987.method_52396(class_2561.method_43470("账号被封停"));
-                        }
-                    });
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }).start();
+            _scheduleBanKick(player);
             return;
         }
         
@@ -124,10 +176,12 @@ public class ServerEventHandler {
      */
     private static void _onPlayerLeave(class_3222 player) {
         String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
         
-        // 将玩家标记为离线状态
-        dataManager.removePlayerData(playerName);
+        // 结束本次连接的会话
+        PlayerSessionManager.getInstance().endSession(player);
+        PlayerDataManager.getInstance().unloadPlayerData(playerName);
+        LoginAdmission.getInstance().remove(playerName);
+        TickScheduler.getInstance().cancel(player.method_5667());
         
         // 清理失明效果记录
         BlindnessEffectManager.getInstance().cleanupPlayer(player.method_5667());
@@ -135,6 +189,22 @@ public class ServerEventHandler {
         Ohc_Login.LOGGER.info("Player {} left the server", playerName);
     }
     
+    /**
+     * 延迟踢出被封停的玩家（玩家提前离开时任务随之取消）
+     */
+    private static void _scheduleBanKick(class_3222 player) {
+        int kickDelaySeconds = MessageConfig.getInstance().getKickDelaySeconds();
+        MinecraftServer server = player.method_5682();
+        UUID playerUuid = player.method_5667();
+        TickScheduler.getInstance().scheduleSeconds(playerUuid, kickDelaySeconds, () -> {
+            // 等待期间玩家可能重生或切换维度，按 UUID 取当前实体
+            class_3222 current = PlayerSessionManager.getOnlinePlayer(server, playerUuid);
+            if (current != null && !current.method_14239()) {
+                current.field_13987.method_52396(class_2561.method_43470("账号被封停"));
+            }
+        });
+    }
+    
     /**
      * 发送设置密码请求
      */
@@ -156,12 +226,14 @@ public class ServerEventHandler {
      */
     public static void handleLoginSuccess(class_3222 player) {
         String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
+        String playerUuid = player.method_5667().toString();
         
-        // 标记为已登录
-        playerData.loginSuccess();
-        dataManager.savePlayerData(playerData);
+        // 标记为已登录，同时记录UUID供存储后端按UUID索引
+        PlayerDataManager.getInstance().updatePlayerData(playerName, playerData -> {
+            playerData.loginSuccess();
+            playerData.setPlayerUuid(playerUuid);
+        });
+        PlayerSessionManager.getInstance().markLoggedIn(player);
         
         // 将玩家昵称添加到已登录玩家配置中
         LoggedPlayersConfig.getInstance().addLoggedPlayer(playerName);
@@ -181,12 +253,8 @@ public class ServerEventHandler {
      */
     public static void handleLoginFailure(class_3222 player) {
         String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
         // 记录失败次数
-        playerData.loginFailed();
-        dataManager.savePlayerData(playerData);
+        PlayerData playerData = PlayerDataManager.getInstance().updatePlayerData(playerName, PlayerData::loginFailed);
         
         // 检查是否触发冷却或封停
         if (playerData.isBanned()) {
@@ -198,19 +266,7 @@ public class ServerEventHandler {
             player.method_7353(banMessage, false);
             
             // 延迟后踢出
-            int kickDelaySeconds = config.getKickDelaySeconds();
-            new Thread(() -> {
-                try {
-                    Thread.sleep(kickDelaySeconds * 1000);
-                    player.method_5682().execute(() -> {
-                        if (player.field_13987 != null && !player.method_14239()) {
-                            player.field_13987.method_52396(class_2561.method_43470("账号被封停"));
-                        }
-                    });
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }).start();
+            _scheduleBanKick(player);
         } else if (playerData.isInCooldown()) {
             long remainingSeconds = playerData.getRemainingCooldownSeconds();
             class_2561 cooldownMessage = class_2561.method_43470("密码错误！冷却时间: " + remainingSeconds + " 秒")
@@ -0,0 +1,191 @@
+package com.login.ohc.events;
+
+import com.login.ohc.Ohc_Login;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 按游戏刻驱动的延迟任务调度器（哈希时间轮）
+ * 任务按到期刻放入对应的槽，每刻只检查当前槽中的任务；延迟超过一圈的任务留在槽中等下一圈。
+ * 任务可以属于某个玩家，玩家离开时按 UUID 一次取消其全部任务
+ * 只在服务器线程中调用
+ */
+public class TickScheduler {
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    @SuppressWarnings("unchecked")
+    private final List<Task>[] wheel = new List[WHEEL_SIZE];
+    // 玩家 UUID -> 该玩家未执行的任务
+    private final HashMap<UUID, List<Task>> tasksByOwner = new HashMap<>();
+    private long currentTick;
+    private int pendingCount;
+
+    private TickScheduler() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+    }
+
+    public static TickScheduler getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final TickScheduler INSTANCE = new TickScheduler();
+    }
+
+    /**
+     * 可取消的任务句柄
+     */
+    public static final class Task {
+        private final UUID owner;
+        private final long deadline;
+        private final Runnable action;
+        private boolean done;
+
+        private Task(UUID owner, long deadline, Runnable action) {
+            this.owner = owner;
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        /**
+         * 取消任务（已执行或已取消时无效果）
+         */
+        public void cancel() {
+            TickScheduler.getInstance()._finish(this);
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+
+    /**
+     * 在 delayTicks 刻后执行任务（至少延迟一刻）
+     * @param owner 任务所属玩家的 UUID，为 null 时任务不随玩家离开取消
+     */
+    public Task schedule(UUID owner, int delayTicks, Runnable action) {
+        Task task = new Task(owner, currentTick + Math.max(1, delayTicks), action);
+        wheel[(int) (task.deadline & WHEEL_MASK)].add(task);
+        if (owner != null) {
+            tasksByOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(task);
+        }
+        pendingCount++;
+        return task;
+    }
+
+    /**
+     * 在指定秒数后执行任务
+     */
+    public Task scheduleSeconds(UUID owner, int delaySeconds, Runnable action) {
+        return schedule(owner, delaySeconds * 20, action);
+    }
+
+    /**
+     * 取消玩家的全部任务
+     */
+    public void cancel(UUID owner) {
+        List<Task> tasks = tasksByOwner.remove(owner);
+        if (tasks == null) {
+            return;
+        }
+        for (Task task : tasks) {
+            if (!task.done) {
+                task.done = true;
+                pendingCount--;
+            }
+        }
+    }
+
+    /**
+     * 每个游戏刻结束时调用：执行当前槽中到期的任务，清除已取消的任务
+     */
+    public void tick() {
+        currentTick++;
+        List<Task> slot = wheel[(int) (currentTick & WHEEL_MASK)];
+        if (slot.isEmpty()) {
+            return;
+        }
+
+        // 先取出到期任务再执行，任务中新调度的任务可能落在同一个槽
+        List<Task> due = null;
+        for (int i = slot.size() - 1; i >= 0; i--) {
+            Task task = slot.get(i);
+            if (task.done) {
+                _removeAt(slot, i);
+            } else if (task.deadline <= currentTick) {
+                _removeAt(slot, i);
+                if (due == null) {
+                    due = new ArrayList<>();
+                }
+                due.add(task);
+            }
+        }
+        if (due == null) {
+            return;
+        }
+        for (Task task : due) {
+            // 前面的任务可能已取消了后面的任务
+            if (task.done) {
+                continue;
+            }
+            _finish(task);
+            try {
+                task.action.run();
+            } catch (RuntimeException e) {
+                Ohc_Login.LOGGER.error("Scheduled task failed", e);
+            }
+        }
+    }
+
+    /**
+     * 取消全部任务（服务器关闭时调用）
+     */
+    public void clear() {
+        for (List<Task> slot : wheel) {
+            for (Task task : slot) {
+                task.done = true;
+            }
+            slot.clear();
+        }
+        tasksByOwner.clear();
+        pendingCount = 0;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * 标记任务结束并从所属玩家的任务列表中移除，槽中的条目在下次经过时清除
+     */
+    private void _finish(Task task) {
+        if (task.done) {
+            return;
+        }
+        task.done = true;
+        pendingCount--;
+        if (task.owner != null) {
+            List<Task> tasks = tasksByOwner.get(task.owner);
+            if (tasks != null) {
+                tasks.remove(task);
+                if (tasks.isEmpty()) {
+                    tasksByOwner.remove(task.owner);
+                }
+            }
+        }
+    }
+
+    /**
+     * 交换到末尾后删除，槽内顺序无关紧要
+     */
+    private static void _removeAt(List<Task> slot, int index) {
+        int last = slot.size() - 1;
+        slot.set(index, slot.get(last));
+        slot.remove(last);
+    }
+}
@@ -0,0 +1,71 @@
+package com.login.ohc.mixin;
+
+import com.login.ohc.data.AuthenticatedPlayer;
+import com.login.ohc.data.PlayerSessionManager;
+import com.login.ohc.restrictions.PlayerRestrictionManager;
+import net.minecraft.class_1923;
+import net.minecraft.class_3222;
+import net.minecraft.class_3898;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * 区块加载Mixin
+ * 未登录的玩家按旁观模式下"旁观者不生成区块"的方式处理：不为其添加区块加载票，
+ * 不会载入或生成新区块，只能看到已被其他原因载入的区块。登录后的第一个移动包会恢复正常加载
+ * 是否限制在玩家加入时记录在实体上，之后只在登录后移动时解除一次；
+ * 管理员修改密码等导致的登录状态变化不会改变已记录的值，加票和移除票始终成对。
+ * 和旁观者一样，未登录玩家附近的区块不会因为该玩家而刷怪或随机刻
+ */
+@Mixin(class_3898.class)
+public class ChunkLoadingManagerMixin {
+    
+    /**
+     * 玩家加入时记录是否限制区块加载，移除时清除
+     */
+    @Inject(method = "handlePlayerAddedOrRemoved", at = @At("HEAD"))
+    private void captureChunkLoadingSuppressed(class_3222 player, boolean added, CallbackInfo ci) {
+        if (added) {
+            ((AuthenticatedPlayer) player).ohc_login$setChunkLoadingSuppressed(
+                    PlayerRestrictionManager.isChunkLoadingSuppressed(player));
+        }
+    }
+    
+    @Inject(method = "handlePlayerAddedOrRemoved", at = @At("TAIL"))
+    private void clearChunkLoadingSuppressed(class_3222 player, boolean added, CallbackInfo ci) {
+        if (!added) {
+            ((AuthenticatedPlayer) player).ohc_login$setChunkLoadingSuppressed(false);
+        }
+    }
+    
+    /**
+     * 登录后的第一次位置更新解除限制，原版随后按状态变化为玩家添加区块加载票
+     */
+    @Inject(method = "updatePosition", at = @At("HEAD"))
+    private void releaseChunkLoadingSuppressed(class_3222 player, CallbackInfo ci) {
+        AuthenticatedPlayer authPlayer = (AuthenticatedPlayer) player;
+        if (authPlayer.ohc_login$isChunkLoadingSuppressed() && PlayerSessionManager.getInstance().isLoggedIn(player)) {
+            authPlayer.ohc_login$setChunkLoadingSuppressed(false);
+        }
+    }
+    
+    @Inject(method = "doesNotGenerateChunks", at = @At("HEAD"), cancellable = true)
+    private void onDoesNotGenerateChunks(class_3222 player, CallbackInfoReturnable<Boolean> cir) {
+        if (((AuthenticatedPlayer) player).ohc_login$isChunkLoadingSuppressed()) {
+            cir.setReturnValue(true);
+        }
+    }
+    
+    /**
+     * 自然生成和随机刻按附近的非旁观玩家判断区块是否活跃，未登录玩家按旁观者处理
+     */
+    @Inject(method = "canTickChunk", at = @At("HEAD"), cancellable = true)
+    private void onCanTickChunk(class_3222 player, class_1923 pos, CallbackInfoReturnable<Boolean> cir) {
+        if (PlayerRestrictionManager.isHiddenFromWorld(player)) {
+            cir.setReturnValue(false);
+        }
+    }
+}
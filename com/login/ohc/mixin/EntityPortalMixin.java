@@ -0,0 +1,29 @@
+package com.login.ohc.mixin;
+
+import com.login.ohc.restrictions.PlayerRestrictionManager;
+import com.login.ohc.restrictions.RestrictedPlayerRegistry;
+import net.minecraft.class_1297;
+import net.minecraft.class_3222;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 传送门限制Mixin
+ * 实体接触传送门方块时拦截，未登录的玩家不会开始传送，也就不会载入目标维度的区块或生成传送门
+ */
+@Mixin(class_1297.class)
+public class EntityPortalMixin {
+    
+    /**
+     * 拦截进入传送门（下界传送门、末地传送门和末地折跃门）
+     */
+    @Inject(method = "tryUsePortal", at = @At("HEAD"), cancellable = true)
+    private void onTryUsePortal(CallbackInfo ci) {
+        if ((Object) this instanceof class_3222 player && !PlayerRestrictionManager.canPlayerUsePortal(player)) {
+            RestrictedPlayerRegistry.getInstance().notifyPortalBlocked(player);
+            ci.cancel();
+        }
+    }
+}
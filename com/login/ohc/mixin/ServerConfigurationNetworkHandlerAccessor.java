@@ -0,0 +1,17 @@
+package com.login.ohc.mixin;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.class_8610;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * 配置阶段网络处理器访问器
+ * 读取握手时确定的玩家档案，用于在创建玩家实体之前检查封停状态
+ */
+@Mixin(class_8610.class)
+public interface ServerConfigurationNetworkHandlerAccessor {
+    
+    @Accessor("profile")
+    GameProfile ohc_login$getProfile();
+}
@@ -2,8 +2,11 @@ package com.login.ohc.mixin;
 
 import com.login.ohc.Ohc_Login;
 import com.login.ohc.restrictions.PlayerRestrictionManager;
+import com.login.ohc.restrictions.RestrictedPlayerRegistry;
 import net.minecraft.class_124;
 import net.minecraft.class_2561;
+import net.minecraft.class_2828;
+import net.minecraft.class_2833;
 import net.minecraft.class_2846;
 import net.minecraft.class_3222;
 import net.minecraft.class_3244;
@@ -14,10 +17,10 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
- * ServerPlayNetworkHandlerMixin - 拦截网络包处理中的物品丢弃行为
+ * ServerPlayNetworkHandlerMixin - 拦截网络包处理中的物品丢弃和移动行为
  * 
  * 这个Mixin拦截ServerPlayNetworkHandler中的网络包处理方法，
- * 确保未登录的玩家无法通过网络包丢弃物品。
+ * 确保未登录的玩家无法通过网络包丢弃物品，其移动包在服务端应用之前被丢弃。
  */
 @Mixin(class_3244.class)
 public class ServerPlayNetworkHandlerMixin {
@@ -54,4 +57,39 @@ public class ServerPlayNetworkHandlerMixin {
             }
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 丢弃未登录玩家改变位置的移动包
+     * 移动包先在网络线程进入此方法，再转到服务器线程处理；在网络线程就取消，服务端不会应用这个位置。
+     * 只转动视角的包照常处理；带位置的包中的视角和拉回传送都在服务器线程中处理，玩家坐标只在服务器线程读取
+     */
+    @Inject(method = "onPlayerMove", at = @At("HEAD"), cancellable = true)
+    private void onPlayerMove(class_2828 packet, CallbackInfo ci) {
+        if (player == null || PlayerRestrictionManager.canPlayerMove(player) || !packet.method_36171()) {
+            return;
+        }
+        ci.cancel();
+        
+        class_3222 movingPlayer = player;
+        movingPlayer.method_5682().execute(() -> {
+            if (packet.method_36172()) {
+                movingPlayer.method_36456(packet.method_12271(movingPlayer.method_36454()));
+                movingPlayer.method_36457(packet.method_12270(movingPlayer.method_36455()));
+            }
+            RestrictedPlayerRegistry.getInstance().onMoveRejected(movingPlayer,
+                    packet.method_12269(movingPlayer.method_23317()),
+                    packet.method_12268(movingPlayer.method_23318()),
+                    packet.method_12274(movingPlayer.method_23321()));
+        });
+    }
+    
+    /**
+     * 丢弃未登录玩家的载具移动包
+     */
+    @Inject(method = "onVehicleMove", at = @At("HEAD"), cancellable = true)
+    private void onVehicleMove(class_2833 packet, CallbackInfo ci) {
+        if (player != null && !PlayerRestrictionManager.canPlayerMove(player)) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.login.ohc.mixin;
+
+import com.login.ohc.config.MessageConfig;
+import com.login.ohc.data.AuthenticatedPlayer;
+import com.login.ohc.restrictions.PlayerRestrictionManager;
+import com.login.ohc.restrictions.RestrictedPlayerRegistry;
+import net.minecraft.class_3222;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * 玩家登录状态Mixin
+ * 在玩家实体上保存登录状态，重生时新实体沿用旧实体的状态；未登录时限制视距，并对其他玩家隐藏
+ */
+@Mixin(class_3222.class)
+public class ServerPlayerEntityAuthMixin implements AuthenticatedPlayer {
+    
+    @Unique
+    private volatile boolean ohc_login$authenticated;
+    
+    @Unique
+    private boolean ohc_login$chunkLoadingSuppressed;
+    
+    @Override
+    public boolean ohc_login$isAuthenticated() {
+        return ohc_login$authenticated;
+    }
+    
+    @Override
+    public void ohc_login$setAuthenticated(boolean authenticated) {
+        this.ohc_login$authenticated = authenticated;
+    }
+    
+    @Override
+    public boolean ohc_login$isChunkLoadingSuppressed() {
+        return ohc_login$chunkLoadingSuppressed;
+    }
+    
+    @Override
+    public void ohc_login$setChunkLoadingSuppressed(boolean suppressed) {
+        this.ohc_login$chunkLoadingSuppressed = suppressed;
+    }
+    
+    /**
+     * 重生（和从末地返回）时会创建新的玩家实体，复制登录状态，未登录时改为限制新实体
+     */
+    @Inject(method = "copyFrom", at = @At("TAIL"))
+    private void copyAuthState(class_3222 oldPlayer, boolean alive, CallbackInfo ci) {
+        this.ohc_login$authenticated = ((AuthenticatedPlayer) oldPlayer).ohc_login$isAuthenticated();
+        if (!this.ohc_login$authenticated) {
+            RestrictedPlayerRegistry.getInstance().replace(oldPlayer, (class_3222) (Object) this);
+        }
+    }
+    
+    /**
+     * 未登录时视距不超过 login_view_distance，登录后的第一个移动包会按完整视距补发区块
+     */
+    @Inject(method = "getViewDistance", at = @At("RETURN"), cancellable = true)
+    private void clampViewDistance(CallbackInfoReturnable<Integer> cir) {
+        if (ohc_login$authenticated) {
+            return;
+        }
+        int loginViewDistance = MessageConfig.getInstance().getLoginViewDistance();
+        if (loginViewDistance > 0 && cir.getReturnValue() > loginViewDistance) {
+            cir.setReturnValue(loginViewDistance);
+        }
+    }
+    
+    /**
+     * 未登录的玩家不被其他玩家的实体追踪（与旁观模式隐藏玩家的方式相同），
+     * 其他客户端收不到该玩家的生成、元数据、装备和移动包；登录后的第一个移动包会重新计算追踪
+     */
+    @Inject(method = "canBeSpectated", at = @At("HEAD"), cancellable = true)
+    private void hideFromTrackers(class_3222 spectator, CallbackInfoReturnable<Boolean> cir) {
+        if (!ohc_login$authenticated && spectator != (Object) this
+                && PlayerRestrictionManager.isHiddenFromWorld((class_3222) (Object) this)) {
+            cir.setReturnValue(false);
+        }
+    }
+}
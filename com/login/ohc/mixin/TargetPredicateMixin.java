@@ -0,0 +1,26 @@
+package com.login.ohc.mixin;
+
+import com.login.ohc.restrictions.PlayerRestrictionManager;
+import net.minecraft.class_1309;
+import net.minecraft.class_3218;
+import net.minecraft.class_3222;
+import net.minecraft.class_4051;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * 生物目标判定Mixin
+ * 未登录的玩家不能成为生物的攻击目标；只影响目标选择，玩家仍会受到其他来源的伤害
+ */
+@Mixin(class_4051.class)
+public class TargetPredicateMixin {
+    
+    @Inject(method = "test", at = @At("HEAD"), cancellable = true)
+    private void onTest(class_3218 world, class_1309 tester, class_1309 target, CallbackInfoReturnable<Boolean> cir) {
+        if (target instanceof class_3222 player && PlayerRestrictionManager.isHiddenFromWorld(player)) {
+            cir.setReturnValue(false);
+        }
+    }
+}
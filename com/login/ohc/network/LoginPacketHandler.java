@@ -1,6 +1,9 @@
 package com.login.ohc.network;
 
 import com.login.ohc.Ohc_Login;
+import com.login.ohc.auth.AuthWorkerPool;
+import com.login.ohc.auth.LoginAdmission;
+import com.login.ohc.auth.PasswordCredential;
 import com.login.ohc.config.MessageConfig;
 import com.login.ohc.data.PlayerData;
 import com.login.ohc.data.PlayerDataManager;
@@ -150,14 +153,16 @@ public class LoginPacketHandler {
             return;
         }
         
-        // 设置密码
-        playerData.setPassword(password);
-        dataManager.savePlayerData(playerData);
-        
-        // 通知事件处理器
-        ServerEventHandler.handlePasswordSetSuccess(player);
+        // 已设置密码时直接忽略，不进入哈希队列
+        if (playerData.hasPassword()) {
+            return;
+        }
         
-        Ohc_Login.LOGGER.info("Player {} set password successfully", playerName);
+        // 经过全服准入控制后在验证线程中生成密码凭据
+        AuthWorkerPool.SubmitResult result = LoginAdmission.getInstance().offer(player,
+                current -> _submitPasswordSet(current, password),
+                current -> _sendSubmitError(current, AuthWorkerPool.SubmitResult.BUSY));
+        _sendSubmitError(player, result);
     }
     
     /**
@@ -182,13 +187,80 @@ public class LoginPacketHandler {
             return;
         }
         
-        // 验证密码
-        if (playerData.verifyPassword(password)) {
-            // 登录成功
-            ServerEventHandler.handleLoginSuccess(player);
-        } else {
-            // 登录失败
-            ServerEventHandler.handleLoginFailure(player);
+        if (!playerData.hasPassword()) {
+            return;
+        }
+        
+        // 先经过全服准入控制，放行后再计算哈希
+        AuthWorkerPool.SubmitResult result = LoginAdmission.getInstance().offer(player,
+                current -> _submitLoginAttempt(current, password),
+                current -> _sendSubmitError(current, AuthWorkerPool.SubmitResult.BUSY));
+        _sendSubmitError(player, result);
+    }
+    
+    /**
+     * 准入控制放行后在验证线程中生成密码凭据
+     */
+    private static void _submitPasswordSet(class_3222 player, String password) {
+        String playerName = player.method_7334().getName();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        AuthWorkerPool.SubmitResult result = AuthWorkerPool.getInstance().submit(player,
+                () -> PasswordCredential.create(password),
+                (current, credential) -> {
+                    if (dataManager.getPlayerData(playerName).hasPassword()) {
+                        return;
+                    }
+                    dataManager.updatePlayerData(playerName, data -> data.setCredential(credential));
+                    
+                    // 通知事件处理器
+                    ServerEventHandler.handlePasswordSetSuccess(current);
+                    
+                    Ohc_Login.LOGGER.info("Player {} set password successfully", playerName);
+                },
+                current -> _sendPasswordError(current, MessageConfig.getInstance().getErrorMessage("auth_error")));
+        _sendSubmitError(player, result);
+    }
+    
+    /**
+     * 准入控制放行后在验证线程中比对密码
+     */
+    private static void _submitLoginAttempt(class_3222 player, String password) {
+        String playerName = player.method_7334().getName();
+        PlayerDataManager dataManager = PlayerDataManager.getInstance();
+        // 排队期间密码可能已被管理员删除
+        PasswordCredential credential = dataManager.getPlayerData(playerName).getCredential();
+        if (credential == null) {
+            _sendPasswordError(player, MessageConfig.getInstance().getErrorMessage("auth_error"));
+            return;
+        }
+        AuthWorkerPool.SubmitResult result = AuthWorkerPool.getInstance().submit(player,
+                () -> credential.verify(password),
+                (current, verification) -> {
+                    if (verification.matched()) {
+                        // 旧算法或低于当前强度的凭据重新哈希
+                        if (verification.upgraded() != null) {
+                            dataManager.updatePlayerData(playerName, data -> data.upgradeCredential(credential, verification.upgraded()));
+                        }
+                        // 登录成功
+                        ServerEventHandler.handleLoginSuccess(current);
+                    } else {
+                        // 登录失败
+                        ServerEventHandler.handleLoginFailure(current);
+                    }
+                },
+                current -> _sendPasswordError(current, MessageConfig.getInstance().getErrorMessage("auth_error")));
+        _sendSubmitError(player, result);
+    }
+    
+    /**
+     * 验证任务未被接受时通知客户端
+     */
+    private static void _sendSubmitError(class_3222 player, AuthWorkerPool.SubmitResult result) {
+        MessageConfig config = MessageConfig.getInstance();
+        if (result == AuthWorkerPool.SubmitResult.IN_FLIGHT) {
+            _sendPasswordError(player, config.getErrorMessage("auth_in_progress"));
+        } else if (result == AuthWorkerPool.SubmitResult.BUSY) {
+            _sendPasswordError(player, config.getErrorMessage("auth_busy"));
         }
     }
     
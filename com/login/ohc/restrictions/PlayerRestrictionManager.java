@@ -2,8 +2,7 @@ package com.login.ohc.restrictions;
 
 import com.login.ohc.Ohc_Login;
 import com.login.ohc.config.MessageConfig;
-import com.login.ohc.data.PlayerData;
-import com.login.ohc.data.PlayerDataManager;
+import com.login.ohc.data.PlayerSessionManager;
 import net.fabricmc.fabric.api.event.player.AttackBlockCallback;
 import net.fabricmc.fabric.api.event.player.AttackEntityCallback;
 import net.fabricmc.fabric.api.event.player.UseBlockCallback;
@@ -96,12 +95,8 @@ public class PlayerRestrictionManager {
             return false;
         }
         
-        String playerName = serverPlayer.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
         // 如果玩家未登录，则限制行为
-        return !playerData.isLoggedIn();
+        return !PlayerSessionManager.getInstance().isLoggedIn(serverPlayer);
     }
     
     /**
@@ -117,11 +112,7 @@ public class PlayerRestrictionManager {
      * 检查玩家是否可以移动
      */
     public static boolean canPlayerMove(class_3222 player) {
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
     }
     
     /**
@@ -144,70 +135,68 @@ public class PlayerRestrictionManager {
             return true;
         }
         
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
     }
     
     /**
      * 检查玩家是否可以使用命令
      */
     public static boolean canPlayerUseCommand(class_3222 player, String command) {
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
         // 允许登录相关的命令
         if (command.startsWith("/l") || command.startsWith("/sp") || command.startsWith("/rp")) {
             return true;
         }
         
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
     }
     
     /**
      * 检查玩家是否可以丢弃物品
      */
     public static boolean canPlayerDropItem(class_3222 player) {
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
     }
     
     /**
      * 检查玩家是否可以拾取物品
      */
     public static boolean canPlayerPickupItem(class_3222 player) {
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
     }
     
     /**
      * 检查玩家是否可以打开容器
      */
     public static boolean canPlayerOpenContainer(class_3222 player) {
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
+    }
+    
+    /**
+     * 检查玩家是否对其他玩家和生物隐藏（未登录；服务端模组创建的假人不受影响）
+     */
+    public static boolean isHiddenFromWorld(class_3222 player) {
+        return !PlayerSessionManager.getInstance().isLoggedIn(player) && !_isFakePlayer(player);
+    }
+    
+    /**
+     * 检查是否不为玩家载入和生成区块（未登录且启用了限制；服务端模组创建的假人不受影响）
+     */
+    public static boolean isChunkLoadingSuppressed(class_3222 player) {
+        return isHiddenFromWorld(player) && MessageConfig.getInstance().isLoginChunkLoadingSuppressed();
+    }
+    
+    /**
+     * 按实体类型判断假人：Carpet 等模组的假人是 ServerPlayerEntity 的子类，
+     * 通过网络连接加入的玩家实体总是 ServerPlayerEntity 本身；玩家名由客户端决定，不能用来判断
+     */
+    private static boolean _isFakePlayer(class_3222 player) {
+        return player.getClass() != class_3222.class;
     }
     
     /**
      * 检查玩家是否可以使用传送门
      */
     public static boolean canPlayerUsePortal(class_3222 player) {
-        String playerName = player.method_7334().getName();
-        PlayerDataManager dataManager = PlayerDataManager.getInstance();
-        PlayerData playerData = dataManager.getPlayerData(playerName);
-        
-        return playerData.isLoggedIn();
+        return PlayerSessionManager.getInstance().isLoggedIn(player);
     }
 }
\ No newline at end of file
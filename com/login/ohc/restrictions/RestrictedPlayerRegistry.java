@@ -0,0 +1,187 @@
+package com.login.ohc.restrictions;
+
+import com.login.ohc.config.MessageConfig;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import net.minecraft.class_2561;
+import net.minecraft.class_3218;
+import net.minecraft.class_3222;
+
+/**
+ * 未登录玩家登记表
+ * 只登记尚未登录的玩家及其允许停留的位置，每个游戏刻由一个服务器刻事件检查这些玩家是否移动或换了世界；
+ * 已登录的玩家不在表中，不产生任何开销
+ * 未登录玩家的移动包在网络层直接丢弃（见 ServerPlayNetworkHandlerMixin），服务端位置不会改变；
+ * 客户端自行移动后只发送一次传送把它拉回，等客户端回到原位后才会再次发送
+ * 只在服务器线程中调用
+ */
+public class RestrictedPlayerRegistry {
+    // 超过该距离（每个坐标轴）的移动会被拉回
+    private static final double MOVE_THRESHOLD = 0.1;
+    // 两次拉回之间的最少间隔（刻）
+    private static final int CORRECTION_INTERVAL_TICKS = 10;
+    // 站在传送门中时提示消息的间隔（刻）
+    private static final int PORTAL_MESSAGE_INTERVAL_TICKS = 20;
+
+    // 玩家 UUID -> 位置记录，按登记顺序排列
+    private final LinkedHashMap<UUID, Tracked> players = new LinkedHashMap<>();
+    private long currentTick;
+    private long corrections;
+
+    private static final class Tracked {
+        private class_3222 player;
+        private class_3218 world;
+        private double x;
+        private double y;
+        private double z;
+        // 已发送拉回传送、客户端尚未回到原位
+        private boolean correcting;
+        private long lastCorrectionTick = Long.MIN_VALUE;
+        private long lastPortalMessageTick = Long.MIN_VALUE;
+
+        private Tracked(class_3222 player) {
+            this.player = player;
+            _capture();
+        }
+
+        private boolean _isAway(double x, double y, double z) {
+            return Math.abs(x - this.x) > MOVE_THRESHOLD
+                    || Math.abs(y - this.y) > MOVE_THRESHOLD
+                    || Math.abs(z - this.z) > MOVE_THRESHOLD;
+        }
+
+        private void _capture() {
+            world = (class_3218) player.method_51469();
+            x = player.method_23317();
+            y = player.method_23318();
+            z = player.method_23321();
+        }
+    }
+
+    private RestrictedPlayerRegistry() {
+    }
+
+    public static RestrictedPlayerRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final RestrictedPlayerRegistry INSTANCE = new RestrictedPlayerRegistry();
+    }
+
+    /**
+     * 登记未登录的玩家，以当前位置为允许停留的位置
+     */
+    public void add(class_3222 player) {
+        players.put(player.method_5667(), new Tracked(player));
+    }
+
+    /**
+     * 玩家登录或离开时移除
+     */
+    public void remove(class_3222 player) {
+        players.remove(player.method_5667());
+    }
+
+    /**
+     * 玩家重生时实体被替换，改为跟踪新实体（位置以新实体为准）
+     */
+    public void replace(class_3222 oldPlayer, class_3222 newPlayer) {
+        Tracked tracked = players.get(oldPlayer.method_5667());
+        if (tracked != null && tracked.player == oldPlayer) {
+            tracked.player = newPlayer;
+            tracked._capture();
+        }
+    }
+
+    /**
+     * 处理被丢弃的移动包：客户端离开原位时发送一次拉回传送，客户端回到原位后才允许下一次
+     * @param x 移动包中的目标位置
+     */
+    public void onMoveRejected(class_3222 player, double x, double y, double z) {
+        Tracked tracked = players.get(player.method_5667());
+        if (tracked == null || tracked.player != player) {
+            return;
+        }
+        if (!tracked._isAway(x, y, z)) {
+            tracked.correcting = false;
+            return;
+        }
+        if (tracked.correcting || currentTick - tracked.lastCorrectionTick < CORRECTION_INTERVAL_TICKS) {
+            return;
+        }
+        tracked.correcting = true;
+        tracked.lastCorrectionTick = currentTick;
+        corrections++;
+        PlayerRestrictionManager.restrictPlayerMovement(player, tracked.x, tracked.y, tracked.z);
+    }
+
+    /**
+     * 未登录玩家进入传送门时已被拦截，提示玩家（站在传送门中时每秒最多一次）
+     */
+    public void notifyPortalBlocked(class_3222 player) {
+        Tracked tracked = players.get(player.method_5667());
+        if (tracked != null) {
+            if (currentTick - tracked.lastPortalMessageTick < PORTAL_MESSAGE_INTERVAL_TICKS) {
+                return;
+            }
+            tracked.lastPortalMessageTick = currentTick;
+        }
+        player.method_7353(class_2561.method_43470(MessageConfig.getInstance().getRestrictionMessage("portal_restricted")), true);
+    }
+
+    /**
+     * 已发送的拉回传送次数
+     */
+    public long getCorrectionCount() {
+        return corrections;
+    }
+
+    public boolean contains(class_3222 player) {
+        return players.containsKey(player.method_5667());
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    public void clear() {
+        players.clear();
+    }
+
+    /**
+     * 每个游戏刻结束时调用：把离开允许位置或换了世界的未登录玩家拉回
+     */
+    public void tick() {
+        currentTick++;
+        if (players.isEmpty()) {
+            return;
+        }
+        Iterator<Tracked> iterator = players.values().iterator();
+        while (iterator.hasNext()) {
+            Tracked tracked = iterator.next();
+            class_3222 player = tracked.player;
+            if (player.method_14239()) {
+                iterator.remove();
+                continue;
+            }
+
+            // 传送门已在进入时拦截，这里处理其他原因导致的世界变化
+            if (player.method_51469() != tracked.world) {
+                class_2561 restrictionMessage = class_2561.method_43470(MessageConfig.getInstance().getRestrictionMessage("portal_restricted"));
+                player.method_7353(restrictionMessage, true);
+                // 将玩家传送回原世界的相同位置
+                player.method_48105(tracked.world, tracked.x, tracked.y, tracked.z, java.util.Set.of(), player.method_36454(), player.method_36455(), false);
+                continue;
+            }
+
+            // 移动包已被丢弃，服务端位置只会因其他原因改变（例如被推动），超过阈值时拉回
+            if (tracked._isAway(player.method_23317(), player.method_23318(), player.method_23321())) {
+                PlayerRestrictionManager.restrictPlayerMovement(player, tracked.x, tracked.y, tracked.z);
+                continue;
+            }
+            tracked._capture();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.login.ohc.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 原子文件写入工具
+ * 先写入同目录下的临时文件，可选落盘后再原子替换目标文件，
+ * 写入过程中崩溃只会留下临时文件，原文件保持完整
+ */
+public class AtomicFiles {
+    
+    /**
+     * 文件内容写入回调
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+    
+    /**
+     * 原子地替换文件内容
+     * @param fsync 是否在替换前后强制落盘
+     */
+    public static void write(Path target, ContentWriter writer, boolean fsync) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        
+        try (FileChannel channel = FileChannel.open(tempFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            writer.write(out);
+            out.flush();
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        if (fsync) {
+            syncDirectory(parent);
+        }
+    }
+    
+    /**
+     * 落盘目录项，确保重命名在断电后仍然有效（部分平台不支持，忽略失败）
+     */
+    public static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // Windows 等平台无法打开目录，重命名本身已足够
+        }
+    }
+}
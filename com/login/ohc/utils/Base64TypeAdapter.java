@@ -0,0 +1,37 @@
+package com.login.ohc.utils;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * 以 Base64 字符串读写 byte[] 字段
+ * 用于 {@link com.google.gson.annotations.JsonAdapter}，JSON 中的格式与字段为 String 时相同
+ */
+public class Base64TypeAdapter extends TypeAdapter<byte[]> {
+
+    @Override
+    public void write(JsonWriter out, byte[] value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(Base64.getEncoder().encodeToString(value));
+        }
+    }
+
+    @Override
+    public byte[] read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(in.nextString());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid Base64 value at " + in.getPath(), e);
+        }
+    }
+}
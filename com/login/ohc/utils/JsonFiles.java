@@ -0,0 +1,69 @@
+package com.login.ohc.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON 文件流式读写工具
+ * 读取时根据文件头自动识别 gzip 压缩，写入时输出紧凑格式并可选 gzip 压缩，
+ * 写入通过 {@link AtomicFiles} 完成
+ */
+public class JsonFiles {
+    private static final int GZIP_MAGIC_FIRST = 0x1F;
+    private static final int GZIP_MAGIC_SECOND = 0x8B;
+
+    /**
+     * JSON 内容写入回调
+     */
+    @FunctionalInterface
+    public interface JsonContentWriter {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * 打开 JSON 文件的流式读取器（gzip 压缩的文件会自动解压）
+     */
+    public static JsonReader openReader(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+        try {
+            in.mark(2);
+            boolean gzip = in.read() == GZIP_MAGIC_FIRST && in.read() == GZIP_MAGIC_SECOND;
+            in.reset();
+            if (gzip) {
+                in = new GZIPInputStream(in, 64 * 1024);
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 原子地写入 JSON 文件
+     * @param gzip 是否 gzip 压缩
+     * @param fsync 是否在替换前后强制落盘
+     */
+    public static void write(Path path, boolean gzip, boolean fsync, JsonContentWriter content) throws IOException {
+        AtomicFiles.write(path, out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            JsonWriter writer = new JsonWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+            content.write(writer);
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        }, fsync);
+    }
+}
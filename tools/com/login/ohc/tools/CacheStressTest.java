@@ -0,0 +1,124 @@
+package com.login.ohc.tools;
+
+import com.login.ohc.data.PlayerData;
+import com.login.ohc.data.PlayerDataManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PlayerDataManager 并发压力测试
+ * 多个线程同时对同一批玩家执行加入/离开、原子修改和查询，离线缓存容量很小，记录会被不断淘汰和重新载入；
+ * 另一个线程模拟服务器线程，持续执行过期冷却的清理。每次修改把失败次数加一（部分修改同时设置很短的冷却），检查：
+ * - 查询到的失败次数不少于查询开始前已完成的修改次数（不会读到被覆盖的旧记录）
+ * - 结束后重新打开存储，每个玩家的失败次数等于完成的修改次数（没有丢失的修改）
+ *
+ * 用法：java -cp <mod与依赖> com.login.ohc.tools.CacheStressTest [线程数] [秒数] [玩家数] [存储后端]
+ */
+public class CacheStressTest {
+    private static final int MAX_OFFLINE_ENTRIES = 16;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        String backend = args.length > 3 ? args[3] : "kv";
+
+        Path worldDir = Files.createTempDirectory("ohc-stress");
+        PlayerDataManager manager = PlayerDataManager.getInstance();
+        manager.initialize(worldDir, backend);
+        manager.getCache().setMaxOfflineEntries(MAX_OFFLINE_ENTRIES);
+
+        AtomicIntegerArray expected = new AtomicIntegerArray(players);
+        AtomicLong operations = new AtomicLong();
+        AtomicLong staleReads = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                // 每个玩家只由一个线程负责加入和离开，与服务器中一个玩家名同时只有一个连接一致
+                boolean[] online = new boolean[players];
+                while (System.nanoTime() < deadline) {
+                    int i = random.nextInt(players);
+                    String playerName = _name(i);
+                    int op = random.nextInt(10);
+                    if (op == 0 && i % threads == worker && !online[i]) {
+                        manager.loadOnlinePlayer(playerName);
+                        online[i] = true;
+                    } else if (op == 1 && i % threads == worker && online[i]) {
+                        manager.unloadPlayerData(playerName);
+                        online[i] = false;
+                    } else if (op < 7) {
+                        // 部分修改设置几毫秒后到期的冷却，交给清理线程清除
+                        long cooldownEndTime = op == 2 ? System.currentTimeMillis() + random.nextInt(1, 20) : 0;
+                        manager.updatePlayerData(playerName, data -> {
+                            data.setFailedAttempts(data.getFailedAttempts() + 1);
+                            if (cooldownEndTime != 0) {
+                                data.setCooldownEndTime(cooldownEndTime);
+                            }
+                        });
+                        expected.incrementAndGet(i);
+                    } else {
+                        int completed = expected.get(i);
+                        PlayerData data = manager.findPlayerData(playerName);
+                        int observed = data != null ? data.getFailedAttempts() : 0;
+                        if (observed < completed) {
+                            staleReads.incrementAndGet();
+                        }
+                    }
+                    operations.incrementAndGet();
+                }
+                for (int i = 0; i < players; i++) {
+                    if (online[i]) {
+                        manager.unloadPlayerData(_name(i));
+                    }
+                }
+            }, "OHC-Stress-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        Thread sweeper = new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                manager.cleanupExpiredStates();
+                Thread.onSpinWait();
+            }
+        }, "OHC-Stress-Sweeper");
+        sweeper.start();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        sweeper.join();
+
+        // 重新打开存储，检查所有修改都已持久化
+        manager.saveAllData();
+        manager.shutdown();
+        manager.initialize(worldDir, backend);
+        int lostUpdates = 0;
+        for (int i = 0; i < players; i++) {
+            PlayerData data = manager.findPlayerData(_name(i));
+            int stored = data != null ? data.getFailedAttempts() : 0;
+            if (stored != expected.get(i)) {
+                lostUpdates++;
+                System.out.printf("%s: expected %d, stored %d%n", _name(i), expected.get(i), stored);
+            }
+        }
+        manager.shutdown();
+
+        System.out.printf("%d operations on %d players with %d threads (%s): %d stale reads, %d players with lost updates, "
+                        + "%d evictions, %d expired cooldowns cleared%n",
+                operations.get(), players, threads, backend, staleReads.get(), lostUpdates, manager.getCache().getEvictions(),
+                manager.getSweptLockoutCount());
+        System.exit(staleReads.get() == 0 && lostUpdates == 0 ? 0 : 1);
+    }
+
+    private static String _name(int i) {
+        return "player_" + i;
+    }
+}
@@ -0,0 +1,99 @@
+package com.login.ohc.tools;
+
+import com.login.ohc.auth.LegacySha256Hasher;
+import com.login.ohc.auth.PasswordCredential;
+import com.login.ohc.auth.PasswordHashSpec;
+import com.login.ohc.auth.PasswordHasher;
+import com.login.ohc.auth.PasswordHashing;
+import com.login.ohc.auth.Pbkdf2Hasher;
+import com.login.ohc.auth.ScryptHasher;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 密码验证 JMH 基准
+ * 配合 -prof gc 运行，gc.alloc.rate.norm 即每次验证分配的字节数；
+ * jdkPbkdf2 为改用 HmacSha256 之前的实现（JDK PBKDF2WithHmacSHA256，每次 doFinal 都会分配），
+ * scryptFreshBuffers 每次丢弃线程本地缓冲，相当于改动前每次哈希都重新分配 V/X/Y
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PasswordHashBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"100000"})
+    public int pbkdf2Iterations;
+
+    @Param({"16384"})
+    public int scryptN;
+
+    private final ScryptHasher scryptHasher = new ScryptHasher();
+    private PasswordCredential legacy;
+    private PasswordCredential pbkdf2;
+    private PasswordCredential scrypt;
+
+    @Setup
+    public void setup() {
+        legacy = _credential(new LegacySha256Hasher(), PasswordHashSpec.of(LegacySha256Hasher.NAME));
+        pbkdf2 = _credential(new Pbkdf2Hasher(), PasswordHashSpec.of(Pbkdf2Hasher.NAME).with("i", pbkdf2Iterations));
+        scrypt = _credential(scryptHasher, PasswordHashSpec.of(ScryptHasher.NAME).with("N", scryptN).with("r", 8).with("p", 1));
+    }
+
+    @Benchmark
+    public boolean verifyLegacy() {
+        return legacy.matches(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyPbkdf2() {
+        return pbkdf2.matches(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verifyScrypt() {
+        return scrypt.matches(PASSWORD);
+    }
+
+    @Benchmark
+    public byte[] jdkPbkdf2() throws GeneralSecurityException {
+        PBEKeySpec keySpec = new PBEKeySpec(PASSWORD.toCharArray(), pbkdf2.salt(), pbkdf2Iterations, PasswordHashing.HASH_LENGTH * 8);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(keySpec).getEncoded();
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+
+    @Benchmark
+    public boolean scryptFreshBuffers() {
+        scryptHasher.releaseThreadResources();
+        return scrypt.matches(PASSWORD);
+    }
+
+    private static PasswordCredential _credential(PasswordHasher hasher, PasswordHashSpec spec) {
+        byte[] salt = new byte[PasswordHashing.SALT_LENGTH];
+        for (int i = 0; i < salt.length; i++) {
+            salt[i] = (byte) i;
+        }
+        byte[] hash = new byte[PasswordHashing.HASH_LENGTH];
+        hasher.hash(PASSWORD, salt, spec, hash);
+        return new PasswordCredential(spec.format(), salt, hash);
+    }
+}
@@ -0,0 +1,119 @@
+package com.login.ohc.tools;
+
+import com.login.ohc.data.PlayerData;
+import com.login.ohc.data.storage.IndexedPlayerDataStorage;
+import com.login.ohc.data.storage.JsonPlayerDataStorage;
+import com.login.ohc.data.storage.PlayerDataStorage;
+import com.login.ohc.data.storage.SqlPlayerDataStorage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 存储后端对比基准：分别用 json、kv、sql 后端写入 1 万 / 10 万 / 100 万条记录，
+ * 测量批量写入、重新打开（服务器启动）、随机按名读取的耗时和磁盘占用
+ *
+ * 用法：java -cp <mod与依赖,JDBC驱动> com.login.ohc.tools.StorageBenchmark [后端列表] [记录数列表] [JDBC地址]
+ * 例如：StorageBenchmark json,kv,sql 10000,100000,1000000 jdbc:sqlite:{world}/bench.sqlite
+ */
+public class StorageBenchmark {
+    private static final int LOOKUPS = 10_000;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    public static void main(String[] args) throws IOException {
+        String[] backends = (args.length > 0 ? args[0] : "json,kv,sql").split(",");
+        String[] sizes = (args.length > 1 ? args[1] : "10000,100000,1000000").split(",");
+        String jdbcUrl = args.length > 2 ? args[2] : "jdbc:sqlite:{world}/ohc_login_data.sqlite";
+
+        System.out.printf("%-7s %10s %12s %12s %12s %10s%n", "backend", "records", "write(ms)", "open(ms)", "lookup(us)", "disk(KB)");
+        for (String size : sizes) {
+            int records = Integer.parseInt(size.trim());
+            for (String backend : backends) {
+                _run(backend.trim(), records, jdbcUrl);
+            }
+        }
+    }
+
+    private static void _run(String backend, int records, String jdbcUrl) throws IOException {
+        Path worldDir = Files.createTempDirectory("ohc-bench-" + backend);
+        try {
+            // 批量写入并落盘
+            PlayerDataStorage storage = _create(backend, worldDir, jdbcUrl);
+            storage.open();
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                storage.save(_record(i));
+            }
+            storage.flush();
+            long writeNanos = System.nanoTime() - start;
+            storage.close();
+
+            // 重新打开，相当于服务器启动时的载入
+            storage = _create(backend, worldDir, jdbcUrl);
+            start = System.nanoTime();
+            storage.open();
+            long openNanos = System.nanoTime() - start;
+
+            // 随机读取，相当于玩家加入时载入记录
+            Random random = new Random(42);
+            for (int i = 0; i < LOOKUPS / 10; i++) {
+                storage.load(_name(random.nextInt(records)));
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                if (storage.load(_name(random.nextInt(records))) == null) {
+                    throw new IllegalStateException("Missing record in " + backend);
+                }
+            }
+            long lookupNanos = System.nanoTime() - start;
+            storage.close();
+
+            System.out.printf("%-7s %10d %12d %12d %12.1f %10d%n", backend, records, writeNanos / 1_000_000,
+                    openNanos / 1_000_000, lookupNanos / 1000.0 / LOOKUPS, _directorySize(worldDir) / 1024);
+        } finally {
+            _delete(worldDir);
+        }
+    }
+
+    private static PlayerDataStorage _create(String backend, Path worldDir, String jdbcUrl) {
+        return switch (backend) {
+            case IndexedPlayerDataStorage.NAME -> new IndexedPlayerDataStorage(worldDir, FLUSH_INTERVAL_MILLIS, false);
+            case SqlPlayerDataStorage.NAME -> new SqlPlayerDataStorage(worldDir, jdbcUrl, FLUSH_INTERVAL_MILLIS);
+            case JsonPlayerDataStorage.NAME -> new JsonPlayerDataStorage(worldDir, FLUSH_INTERVAL_MILLIS, 10_000, false, false);
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+    }
+
+    private static PlayerData _record(int i) {
+        PlayerData data = new PlayerData(_name(i));
+        byte[] salt = new byte[16];
+        byte[] hash = new byte[32];
+        Random random = new Random(i);
+        random.nextBytes(salt);
+        random.nextBytes(hash);
+        data.setSalt(salt);
+        data.setHashedPassword(hash);
+        data.setHasPassword(true);
+        data.setLastLoginTime(System.currentTimeMillis());
+        return data;
+    }
+
+    private static String _name(int i) {
+        return "player_" + i;
+    }
+
+    private static long _directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void _delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}